@@ -0,0 +1,57 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.ResponseBookingDto;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность BookingService.findAllBookingByOwnerItems для каждой категории бронирований.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookingServiceBenchmark {
+    @Param("200")
+    private int users;
+
+    @Param("10")
+    private int itemsPerOwner;
+
+    @Param("10")
+    private int bookingsPerItem;
+
+    @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    private BookingState state;
+
+    @Param("20")
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ServerContext.startSeeded(new DatasetSize(users, itemsPerOwner, bookingsPerItem, 0), "database");
+        bookingService = context.getBean(BookingService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ResponseBookingDto> findAllBookingByOwnerItems() {
+        long ownerId = 1 + ThreadLocalRandom.current().nextInt(users);
+        return bookingService.findAllBookingByOwnerItems(ownerId, state, 0, pageSize, null);
+    }
+}
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.benchmarks;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Заполняет базу сервера через его репозитории. Данные детерминированы (фиксированный seed), ID пользователей
+ * идут подряд с 1, поэтому владельцев и арендаторов для запросов можно выбирать по номеру.
+ * <p>
+ * Бронирования одной вещи идут друг за другом неделя за неделей: примерно половина в прошлом, одно текущее,
+ * остальные в будущем. Прошедшие в основном подтверждены, часть отклонена; будущие ждут ответа или подтверждены.
+ */
+@Slf4j
+public class DatasetSeeder {
+    private static final int BATCH_SIZE = 1000;
+    private static final String[] NAMES = {"Рюкзак", "Палатка", "Дрель", "Велосипед", "Лодка", "Гитара",
+        "Самокат", "Проектор", "Лыжи", "Фотоаппарат"};
+    private static final String[] ADJECTIVES = {"походный", "большой", "легкий", "старый", "новый",
+        "складной", "детский", "профессиональный"};
+
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Random random = new Random(42);
+
+    public DatasetSeeder(ApplicationContext context) {
+        this.userRepository = context.getBean(UserRepository.class);
+        this.itemRepository = context.getBean(ItemRepository.class);
+        this.bookingRepository = context.getBean(BookingRepository.class);
+        this.itemRequestRepository = context.getBean(ItemRequestRepository.class);
+        this.transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    public void seed(DatasetSize size) {
+        long started = System.nanoTime();
+        // сначала все пользователи, чтобы арендатором могла стать любой из них
+        for (int from = 1; from <= size.getUsers(); from += BATCH_SIZE) {
+            saveUsersWithRequests(from, Math.min(from + BATCH_SIZE, size.getUsers() + 1), size);
+        }
+        int ownersPerBatch = Math.max(1, BATCH_SIZE / Math.max(1, size.getItemsPerOwner()));
+        for (int from = 1; from <= size.getUsers(); from += ownersPerBatch) {
+            saveItemsWithBookings(from, Math.min(from + ownersPerBatch, size.getUsers() + 1), size);
+        }
+        log.info("Данные сгенерированы за {} с: {}", (System.nanoTime() - started) / 1_000_000_000, size);
+    }
+
+    private void saveUsersWithRequests(int fromUser, int toUser, DatasetSize size) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<User> users = new ArrayList<>(toUser - fromUser);
+            for (int i = fromUser; i < toUser; i++) {
+                users.add(User.builder()
+                        .name("Пользователь " + i)
+                        .email("user" + i + "@shareit.ru")
+                        .build());
+            }
+            List<ItemRequest> requests = new ArrayList<>();
+            for (User requestor : userRepository.saveAll(users)) {
+                for (int i = 0; i < size.getRequestsPerUser(); i++) {
+                    requests.add(ItemRequest.builder()
+                            .description("Нужен " + randomName().toLowerCase())
+                            .requestor(requestor)
+                            .created(LocalDateTime.now().minusHours(random.nextInt(24 * 365)))
+                            .build());
+                }
+            }
+            itemRequestRepository.saveAll(requests);
+        });
+    }
+
+    private void saveItemsWithBookings(int fromOwner, int toOwner, DatasetSize size) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Item> items = new ArrayList<>();
+            for (long ownerId = fromOwner; ownerId < toOwner; ownerId++) {
+                User owner = userRepository.getReferenceById(ownerId);
+                for (int i = 0; i < size.getItemsPerOwner(); i++) {
+                    String name = randomName();
+                    items.add(Item.builder()
+                            .name(name)
+                            .description(ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + name.toLowerCase())
+                            .available(random.nextInt(10) > 0)
+                            .owner(owner)
+                            .build());
+                }
+            }
+            List<Booking> bookings = new ArrayList<>(BATCH_SIZE);
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+            for (Item item : itemRepository.saveAll(items)) {
+                LocalDateTime start = now.minusWeeks(size.getBookingsPerItem() / 2).plusHours(random.nextInt(24));
+                for (int i = 0; i < size.getBookingsPerItem(); i++) {
+                    LocalDateTime end = start.plusDays(1 + random.nextInt(5));
+                    bookings.add(Booking.builder()
+                            .item(item)
+                            .booker(randomBooker(item.getOwner().getId(), size))
+                            .start(start)
+                            .end(end)
+                            .status(randomStatus(end.isBefore(now)))
+                            .build());
+                    if (bookings.size() == BATCH_SIZE) {
+                        bookingRepository.saveAll(bookings);
+                        bookings.clear();
+                    }
+                    start = start.plusWeeks(1);
+                }
+            }
+            bookingRepository.saveAll(bookings);
+        });
+    }
+
+    private User randomBooker(long ownerId, DatasetSize size) {
+        long bookerId = ownerId;
+        while (bookerId == ownerId && size.getUsers() > 1) {
+            bookerId = 1 + random.nextInt(size.getUsers());
+        }
+        return userRepository.getReferenceById(bookerId);
+    }
+
+    private BookingStatus randomStatus(boolean finished) {
+        int roll = random.nextInt(10);
+        if (finished) {
+            return roll < 8 ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        }
+        return roll < 5 ? BookingStatus.WAITING : BookingStatus.APPROVED;
+    }
+
+    private String randomName() {
+        return NAMES[random.nextInt(NAMES.length)];
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.benchmarks;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class DatasetSize {
+    private final int users;
+
+    private final int itemsPerOwner;
+
+    private final int bookingsPerItem;
+
+    private final int requestsPerUser;
+}
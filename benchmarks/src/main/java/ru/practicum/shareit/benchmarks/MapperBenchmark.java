@@ -0,0 +1,108 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.ResponseBookingDto;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDtoMapper;
+import ru.practicum.shareit.item.ItemDtoMapperImpl;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.UserMapperImpl;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость одного преобразования: ModelMapper (как было в сервисах) против сгенерированных MapStruct-мапперов,
+ * а также ручной маппинг бронирования.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final ItemDtoMapper itemDtoMapper = new ItemDtoMapperImpl();
+    private final UserMapper userMapper = new UserMapperImpl();
+    private Item item;
+    private ItemDto itemDto;
+    private User user;
+    private Booking booking;
+
+    @Setup
+    public void setUp() {
+        user = User.builder()
+                .id(1L)
+                .name("Сергей")
+                .email("sher@mail.com")
+                .build();
+        item = Item.builder()
+                .id(1L)
+                .name("Рюкзак")
+                .description("Походный рюкзак")
+                .available(true)
+                .owner(user)
+                .itemRequest(ItemRequest.builder()
+                        .id(1L)
+                        .description("Нужен рюкзак")
+                        .requestor(user)
+                        .build())
+                .build();
+        itemDto = ItemDto.builder()
+                .name("Рюкзак")
+                .description("Походный рюкзак")
+                .available(true)
+                .requestId(1L)
+                .build();
+        booking = Booking.builder()
+                .id(1L)
+                .item(item)
+                .booker(user)
+                .start(LocalDateTime.of(2124, 6, 29, 12, 23))
+                .end(LocalDateTime.of(2124, 6, 30, 12, 23))
+                .build();
+    }
+
+    @Benchmark
+    public ItemDto itemToDtoModelMapper() {
+        return modelMapper.map(item, ItemDto.class);
+    }
+
+    @Benchmark
+    public ItemDto itemToDtoGenerated() {
+        return itemDtoMapper.mapToItemDto(item);
+    }
+
+    @Benchmark
+    public Item dtoToItemModelMapper() {
+        return modelMapper.map(itemDto, Item.class);
+    }
+
+    @Benchmark
+    public Item dtoToItemGenerated() {
+        return itemDtoMapper.mapToItem(itemDto);
+    }
+
+    @Benchmark
+    public ResponseBookingDto bookingToResponseDto() {
+        return BookingMapper.mapToResponseBookingDto(booking);
+    }
+
+    @Benchmark
+    public UserDto userToDtoModelMapper() {
+        return modelMapper.map(user, UserDto.class);
+    }
+
+    @Benchmark
+    public UserDto userToDtoGenerated() {
+        return userMapper.mapToUserDto(user);
+    }
+}
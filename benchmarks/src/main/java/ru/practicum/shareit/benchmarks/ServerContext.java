@@ -0,0 +1,55 @@
+package ru.practicum.shareit.benchmarks;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.item.ItemSearchEngine;
+import ru.practicum.shareit.item.TrigramItemSearchEngine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@UtilityClass
+public class ServerContext {
+
+    /**
+     * Контекст сервера без веб-слоя на отдельной базе H2 в памяти, заполненной данными указанного объема.
+     */
+    public ConfigurableApplicationContext startSeeded(DatasetSize size, String searchEngine) {
+        ConfigurableApplicationContext context = start(WebApplicationType.NONE,
+                "--spring.datasource.url=jdbc:h2:mem:benchmarks;DB_CLOSE_DELAY=-1",
+                "--shareit.search.engine=" + searchEngine);
+        seed(context, size);
+        return context;
+    }
+
+    /**
+     * Запуск сервера с приглушенным логированием. Аргументы командной строки важнее application.properties
+     * сервера, поэтому через них можно сменить базу, порт и остальные настройки.
+     */
+    public ConfigurableApplicationContext start(WebApplicationType type, String... args) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.ru.practicum.shareit=WARN",
+                "--logging.level.ru.practicum.shareit.benchmarks=INFO",
+                "--logging.level.org.springframework.transaction.interceptor=WARN",
+                "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN"));
+        arguments.addAll(Arrays.asList(args));
+        return new SpringApplicationBuilder(ShareItServer.class)
+                .web(type)
+                .run(arguments.toArray(new String[0]));
+    }
+
+    public void seed(ConfigurableApplicationContext context, DatasetSize size) {
+        new DatasetSeeder(context).seed(size);
+        // индекс поиска заполняется при старте, а данные добавлены после него
+        ItemSearchEngine engine = context.getBean(ItemSearchEngine.class);
+        if (engine instanceof TrigramItemSearchEngine) {
+            ((TrigramItemSearchEngine) engine).load();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ResponseItemDto;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность сервисов на заполненной базе H2. Объем данных задается параметрами JMH,
+ * например: -p users=1000 -p itemsPerOwner=20 -p bookingsPerItem=10.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceBenchmark {
+    @Param("200")
+    private int users;
+
+    @Param("10")
+    private int itemsPerOwner;
+
+    @Param("10")
+    private int bookingsPerItem;
+
+    @Param("2")
+    private int requestsPerUser;
+
+    @Param({"memory", "database"})
+    private String searchEngine;
+
+    @Param("20")
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private ItemRequestService itemRequestService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ServerContext.startSeeded(new DatasetSize(users, itemsPerOwner, bookingsPerItem, requestsPerUser),
+                searchEngine);
+        itemService = context.getBean(ItemService.class);
+        itemRequestService = context.getBean(ItemRequestService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ResponseItemDto> findAllOwnerItems() {
+        return itemService.findAllOwnerItems(randomUserId(), 0, pageSize, null);
+    }
+
+    @Benchmark
+    public List<ItemDto> findByText() {
+        return itemService.findByText(randomUserId(), "походный рюк", 0, pageSize);
+    }
+
+    @Benchmark
+    public List<ItemRequestResponseDto> findAllRequests() {
+        return itemRequestService.findAllRequests(randomUserId(), 0, pageSize, null);
+    }
+
+    private long randomUserId() {
+        return 1 + ThreadLocalRandom.current().nextInt(users);
+    }
+}
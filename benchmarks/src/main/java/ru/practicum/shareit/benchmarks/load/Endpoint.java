@@ -0,0 +1,29 @@
+package ru.practicum.shareit.benchmarks.load;
+
+import java.util.Arrays;
+
+public enum Endpoint {
+    SEARCH("search"), // GET /items/search
+    BOOKINGS("bookings"), // GET /bookings?state=...
+    OWNER_BOOKINGS("owner-bookings"), // GET /bookings/owner?state=...
+    REQUESTS("requests"), // GET /requests/all
+    BOOK("book"), // POST /bookings
+    APPROVE("approve"); // PATCH /bookings/{id}?approved=true для бронирований, созданных тестом
+
+    private final String name;
+
+    Endpoint(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public static Endpoint byName(String name) {
+        return Arrays.stream(values())
+                .filter(endpoint -> endpoint.name.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Неизвестный эндпоинт: " + name));
+    }
+}
@@ -0,0 +1,269 @@
+package ru.practicum.shareit.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.benchmarks.ServerContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный тест связки gateway + server с открытой моделью нагрузки: запросы отправляются по расписанию
+ * с заданной частотой независимо от того, успел ли ответить сервер, а задержка считается от запланированного
+ * момента отправки. Гистограммы задержек по эндпоинтам сохраняются как базовая линия.
+ * <p>
+ * С ключом --seed сервер запускается в этом же процессе (порт 9090, база из --spring.datasource.url или H2
+ * в памяти) и заполняется данными через репозитории; gateway должен быть запущен отдельно и смотреть на него.
+ * Владельцы вещей и бронирований вычисляются по ID, поэтому без --seed база должна быть заполнена этим же
+ * инструментом с теми же объемами.
+ */
+@Slf4j
+public class LoadGenerator {
+    private static final int PAGE_SIZE = 20;
+    private static final int MAX_IN_FLIGHT = 2000;
+    private static final String[] SEARCH_TEXTS = {"рюкзак", "палатк", "дрель", "походный", "складной", "лодка"};
+    private static final String[] STATES = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"};
+
+    private final LoadOptions options;
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+    // созданные тестом бронирования: ID бронирования и ID вещи, ожидающие подтверждения владельцем
+    private final Queue<long[]> waitingBookings = new ConcurrentLinkedQueue<>();
+    private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+    private final Endpoint[] schedule;
+
+    public LoadGenerator(LoadOptions options) {
+        this.options = options;
+        this.executor = Executors.newFixedThreadPool(options.getThreads());
+        this.client = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        int totalWeight = options.getMix().values().stream().mapToInt(Integer::intValue).sum();
+        this.schedule = new Endpoint[totalWeight];
+        int position = 0;
+        for (Map.Entry<Endpoint, Integer> weight : options.getMix().entrySet()) {
+            stats.put(weight.getKey(), new EndpointStats());
+            for (int i = 0; i < weight.getValue(); i++) {
+                schedule[position++] = weight.getKey();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        ConfigurableApplicationContext server = null;
+        if (options.isSeed()) {
+            server = ServerContext.start(WebApplicationType.SERVLET, options.getServerArgs().toArray(new String[0]));
+            ServerContext.seed(server, options.getDatasetSize());
+        }
+        try {
+            new LoadGenerator(options).run();
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    public void run() throws InterruptedException, IOException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / options.getRps();
+        long started = System.nanoTime();
+        long measureFrom = started + TimeUnit.SECONDS.toNanos(options.getWarmupSeconds());
+        long finishAt = measureFrom + TimeUnit.SECONDS.toNanos(options.getDurationSeconds());
+        log.info("Нагрузка {} запросов/с на {}: прогрев {} с, измерение {} с", options.getRps(),
+                options.getGatewayUrl(), options.getWarmupSeconds(), options.getDurationSeconds());
+        for (long i = 0; ; i++) {
+            long intended = started + i * interval;
+            if (intended >= finishAt) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+            send(endpoint, intended, intended >= measureFrom);
+        }
+        inFlight.acquire(MAX_IN_FLIGHT);
+        executor.shutdown();
+        report();
+    }
+
+    private void send(Endpoint endpoint, long intended, boolean measured) {
+        EndpointStats endpointStats = stats.get(endpoint);
+        HttpRequest request = buildRequest(endpoint);
+        if (request == null) {
+            endpointStats.skipped.incrementAndGet();
+            return;
+        }
+        if (!inFlight.tryAcquire()) {
+            // сервер не успевает: запрос не отправляется, чтобы не копить очередь бесконечно
+            endpointStats.dropped.incrementAndGet();
+            return;
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    long latency = System.nanoTime() - intended;
+                    if (measured) {
+                        endpointStats.recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(latency));
+                        endpointStats.count(response == null ? 0 : response.statusCode());
+                    }
+                    if (endpoint == Endpoint.BOOK && response != null && response.statusCode() == 200) {
+                        rememberBooking(response.body());
+                    }
+                    inFlight.release();
+                });
+    }
+
+    private HttpRequest buildRequest(Endpoint endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long userId = randomUserId();
+        switch (endpoint) {
+            case SEARCH:
+                return get("/items/search?text=" + SEARCH_TEXTS[random.nextInt(SEARCH_TEXTS.length)]
+                        + "&from=0&size=" + PAGE_SIZE, userId);
+            case BOOKINGS:
+                return get("/bookings?state=" + STATES[random.nextInt(STATES.length)]
+                        + "&from=0&size=" + PAGE_SIZE, userId);
+            case OWNER_BOOKINGS:
+                return get("/bookings/owner?state=" + STATES[random.nextInt(STATES.length)]
+                        + "&from=0&size=" + PAGE_SIZE, userId);
+            case REQUESTS:
+                return get("/requests/all?from=" + random.nextInt(5) * PAGE_SIZE + "&size=" + PAGE_SIZE, userId);
+            case BOOK:
+                return book();
+            case APPROVE:
+                long[] booking = waitingBookings.poll();
+                return booking == null ? null : HttpRequest.newBuilder()
+                        .uri(URI.create(options.getGatewayUrl() + "/bookings/" + booking[0] + "?approved=true"))
+                        .header("X-Sharer-User-Id", String.valueOf(ownerOf(booking[1])))
+                        .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                        .build();
+            default:
+                throw new IllegalStateException("Неизвестный эндпоинт: " + endpoint);
+        }
+    }
+
+    private HttpRequest book() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long itemId = 1 + random.nextLong((long) options.getDatasetSize().getUsers()
+                * options.getDatasetSize().getItemsPerOwner());
+        long bookerId = randomUserId();
+        if (bookerId == ownerOf(itemId)) {
+            bookerId = bookerId % options.getDatasetSize().getUsers() + 1;
+        }
+        LocalDateTime start = LocalDateTime.now().plusDays(30 + random.nextInt(3650))
+                .truncatedTo(ChronoUnit.HOURS);
+        String body = String.format("{\"itemId\":%d,\"start\":\"%s\",\"end\":\"%s\"}",
+                itemId, start, start.plusDays(1 + random.nextInt(5)));
+        return HttpRequest.newBuilder()
+                .uri(URI.create(options.getGatewayUrl() + "/bookings"))
+                .header("X-Sharer-User-Id", String.valueOf(bookerId))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path, long userId) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(options.getGatewayUrl() + path))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .GET()
+                .build();
+    }
+
+    private void rememberBooking(String body) {
+        try {
+            JsonNode booking = objectMapper.readTree(body);
+            waitingBookings.add(new long[]{booking.get("id").asLong(), booking.get("item").get("id").asLong()});
+        } catch (IOException e) {
+            log.warn("Не удалось разобрать ответ на бронирование: {}", body);
+        }
+    }
+
+    private long randomUserId() {
+        return 1 + ThreadLocalRandom.current().nextInt(options.getDatasetSize().getUsers());
+    }
+
+    // вещи создаются владельцами по очереди, по itemsPerOwner штук на каждого
+    private long ownerOf(long itemId) {
+        return (itemId - 1) / options.getDatasetSize().getItemsPerOwner() + 1;
+    }
+
+    private void report() throws IOException {
+        Files.createDirectories(options.getBaselineDir());
+        StringBuilder summary = new StringBuilder(String.format("%-16s %8s %6s %6s %6s %8s %8s %10s %10s %10s %10s%n",
+                "endpoint", "count", "4xx", "5xx", "failed", "dropped", "skipped",
+                "p50,ms", "p99,ms", "p99.9,ms", "max,ms"));
+        for (Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+            EndpointStats endpointStats = entry.getValue();
+            Histogram histogram = endpointStats.recorder.getIntervalHistogram();
+            summary.append(String.format("%-16s %8d %6d %6d %6d %8d %8d %10.2f %10.2f %10.2f %10.2f%n",
+                    entry.getKey().getName(),
+                    histogram.getTotalCount(),
+                    endpointStats.clientErrors.get(),
+                    endpointStats.serverErrors.get(),
+                    endpointStats.failed.get(),
+                    endpointStats.dropped.get(),
+                    endpointStats.skipped.get(),
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0));
+            try (PrintStream out = new PrintStream(Files.newOutputStream(
+                    options.getBaselineDir().resolve(entry.getKey().getName() + ".hgrm")),
+                    false, StandardCharsets.UTF_8)) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        Files.writeString(options.getBaselineDir().resolve("summary.txt"), summary);
+        log.info("Результаты сохранены в {}:\n{}", options.getBaselineDir().toAbsolutePath(), summary);
+    }
+
+    private static final class EndpointStats {
+        private final Recorder recorder = new Recorder(3);
+        private final AtomicLong clientErrors = new AtomicLong();
+        private final AtomicLong serverErrors = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+
+        private void count(int status) {
+            if (status == 0) {
+                failed.incrementAndGet();
+            } else if (status >= 500) {
+                serverErrors.incrementAndGet();
+            } else if (status >= 400) {
+                clientErrors.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.benchmarks.load;
+
+import lombok.Getter;
+import ru.practicum.shareit.benchmarks.DatasetSize;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Параметры нагрузочного теста в виде --ключ=значение. Ключи, начинающиеся с --spring., передаются
+ * запускаемому серверу, например --spring.datasource.url=jdbc:postgresql://localhost:5432/shareit.
+ */
+@Getter
+public class LoadOptions {
+    private static final String DEFAULT_MIX = "search:30,bookings:20,owner-bookings:10,requests:20,book:10,approve:10";
+
+    private final boolean seed;
+    private final DatasetSize datasetSize;
+    private final String gatewayUrl;
+    private final int rps;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+    private final int threads;
+    private final Map<Endpoint, Integer> mix;
+    private final Path baselineDir;
+    private final List<String> serverArgs;
+
+    private LoadOptions(Map<String, String> options, List<String> serverArgs) {
+        this.seed = Boolean.parseBoolean(options.getOrDefault("seed", "false"));
+        this.datasetSize = new DatasetSize(
+                intOption(options, "users", 1000),
+                intOption(options, "items-per-owner", 10),
+                intOption(options, "bookings-per-item", 10),
+                intOption(options, "requests-per-user", 1));
+        this.gatewayUrl = options.getOrDefault("gateway", "http://localhost:8080");
+        this.rps = intOption(options, "rps", 100);
+        this.warmupSeconds = intOption(options, "warmup", 10);
+        this.durationSeconds = intOption(options, "duration", 60);
+        this.threads = intOption(options, "threads", 16);
+        this.mix = parseMix(options.getOrDefault("mix", DEFAULT_MIX));
+        this.baselineDir = Path.of(options.getOrDefault("baseline", "target/load-baseline"));
+        this.serverArgs = serverArgs;
+    }
+
+    public static LoadOptions parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        List<String> serverArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Ожидался аргумент вида --ключ=значение: " + arg);
+            }
+            if (arg.startsWith("--spring.")) {
+                serverArgs.add(arg);
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return new LoadOptions(options, serverArgs);
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String value) {
+        Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+        for (String part : value.split(",")) {
+            String[] weight = part.split(":");
+            mix.put(Endpoint.byName(weight[0].trim()), Integer.parseInt(weight[1].trim()));
+        }
+        return mix;
+    }
+}
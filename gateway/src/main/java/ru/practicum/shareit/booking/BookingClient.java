@@ -2,15 +2,17 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransportFactory;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -18,45 +20,58 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl,
+            ServerTransportFactory transportFactory,
+            ResponseCache responseCache) {
+        super(transportFactory.create(serverUrl + API_PREFIX), API_PREFIX, responseCache);
     }
 
-    public ResponseEntity<Object> findAllBookingByUserId(long userId, BookingState state, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> findAllBookingByUserId(long userId,
+                                                               BookingState state,
+                                                               Integer from,
+                                                               Integer size,
+                                                               String after) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
         );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        return getPage("?state={state}&from={from}&size={size}", userId, parameters, after);
     }
 
-    public ResponseEntity<Object> findAllBookingByOwnerItems(long userId,
-                                                             BookingState state,
-                                                             Integer from,
-                                                             Integer size) {
+    public Mono<ResponseEntity<Object>> findAllBookingByOwnerItems(long userId,
+                                                                   BookingState state,
+                                                                   Integer from,
+                                                                   Integer size,
+                                                                   String after) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
         );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        return getPage("/owner?state={state}&from={from}&size={size}", userId, parameters, after);
+    }
+
+    public Mono<ResponseEntity<Object>> create(long userId, BookItemRequestDto requestDto) {
+        // новое бронирование может стать ближайшим следующим у вещи
+        return evictOnSuccess(post("", userId, requestDto),
+                cache -> cache.evict("/items/" + requestDto.getItemId()));
     }
 
-    public ResponseEntity<Object> create(long userId, BookItemRequestDto requestDto) {
-        return post("", userId, requestDto);
+    public Mono<ResponseEntity<Object>> createAll(long userId, List<BookItemRequestDto> requestDtos) {
+        return evictOnSuccess(post("/batch", userId, requestDtos),
+                cache -> requestDtos.forEach(requestDto -> cache.evict("/items/" + requestDto.getItemId())));
     }
 
-    public ResponseEntity<Object> findBookingInfo(long userId, Long bookingId) {
+    public Mono<ResponseEntity<Object>> findBookingInfo(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> changeStatus(long userId, Long bookingId, Boolean approved) {
+    public Mono<ResponseEntity<Object>> changeStatus(long userId, Long bookingId, Boolean approved) {
         return patch("/" + bookingId + "?approved=" + approved, userId);
     }
-}
\ No newline at end of file
+
+    public Mono<ResponseEntity<Object>> changeStatuses(long userId, List<BookingDecisionDto> decisions) {
+        return patch("/owner/batch", userId, decisions);
+    }
+}
@@ -6,13 +6,18 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.validation.ValidationService;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -20,31 +25,52 @@ import javax.validation.constraints.PositiveOrZero;
 @Slf4j
 @Validated
 public class BookingController {
+    // ограничение пакета: сервер отвечает на весь пакет в одной транзакции
+    private static final int MAX_BATCH_SIZE = 500;
 
     private final BookingClient bookingClient;
     private final ValidationService validationService;
 
     @PostMapping
-    public ResponseEntity<Object> create(@RequestHeader("X-Sharer-User-Id") long userId,
-                                         @RequestBody @Valid BookItemRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> create(@RequestHeader("X-Sharer-User-Id") long userId,
+                                               @RequestBody @Valid BookItemRequestDto requestDto) {
         validationService.validateStartAndEnd(requestDto);
         log.info("Получен запрос на бронирование от пользователя с ID:{}", userId);
         return bookingClient.create(userId, requestDto);
     }
 
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> createAll(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                  @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                                  List<@Valid BookItemRequestDto> requestDtos) {
+        validationService.validateStartAndEnd(requestDtos);
+        log.info("Получен пакетный запрос на {} бронирований от пользователя с ID:{}", requestDtos.size(), userId);
+        return bookingClient.createAll(userId, requestDtos);
+    }
+
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> changeStatus(@RequestHeader("X-Sharer-User-Id") long userId,
-                                               @PathVariable Long bookingId,
-                                               @RequestParam Boolean approved) {
+    public Mono<ResponseEntity<Object>> changeStatus(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                     @PathVariable Long bookingId,
+                                                     @RequestParam Boolean approved) {
         log.info("Получен запрос на изменение статуса бронирования с ID:{} от пользователя с ID:{}",
                 bookingId,
                 userId);
         return bookingClient.changeStatus(userId, bookingId, approved);
     }
 
+    @PatchMapping("/owner/batch")
+    public Mono<ResponseEntity<Object>> changeStatuses(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                       @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                                       List<@Valid BookingDecisionDto> decisions) {
+        log.info("Получен пакетный запрос на изменение статуса {} бронирований от пользователя с ID:{}",
+                decisions.size(),
+                userId);
+        return bookingClient.changeStatuses(userId, decisions);
+    }
+
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> findBookingInfo(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                  @PathVariable Long bookingId) {
+    public Mono<ResponseEntity<Object>> findBookingInfo(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                        @PathVariable Long bookingId) {
         log.info("Получен запрос на поиск информации по бронированию с ID:{} от пользователя с ID:{}",
                 bookingId,
                 userId);
@@ -52,26 +78,28 @@ public class BookingController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> findAllBookingByUserId(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                         @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Object>> findAllBookingByUserId(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                               @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                               @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                               @RequestParam(required = false) String after) {
         BookingState state = BookingState.from(stateParam);
         log.info("Получен запрос на поиск бронирований пользователя с ID:{} по категории {}",
                 userId,
                 state);
-        return bookingClient.findAllBookingByUserId(userId, state, from, size);
+        return bookingClient.findAllBookingByUserId(userId, state, from, size, after);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> findAllBookingByOwnerItems(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                             @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                                             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                             @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Object>> findAllBookingByOwnerItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                                   @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                                   @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                               @RequestParam(required = false) String after) {
         BookingState state = BookingState.from(stateParam);
         log.info("Получен запрос на поиск бронирований всех вещей владельца с ID:{} по категории {}",
                 userId,
                 state);
-        return bookingClient.findAllBookingByOwnerItems(userId, state, from, size);
+        return bookingClient.findAllBookingByOwnerItems(userId, state, from, size, after);
     }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки общего пула HTTP-соединений gateway с сервером.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit-server.http-client")
+public class HttpClientProperties {
+    // всего соединений в пуле
+    private int maxTotal = 200;
+
+    // соединений к одному хосту; gateway ходит только на сервер, поэтому почти весь пул
+    private int maxPerRoute = 200;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    // ожидание свободного соединения из пула
+    private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    // сколько держать соединение, если сервер не прислал Keep-Alive; меньше server.tomcat.keep-alive-timeout
+    // сервера (20 секунд), чтобы не отправить запрос в соединение, которое сервер уже закрывает
+    private Duration keepAlive = Duration.ofSeconds(15);
+
+    // простаивающие дольше соединения закрываются фоновым потоком
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    // соединение, простоявшее дольше, проверяется перед выдачей из пула
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Кэш ответов сервера на чтение отдельных ресурсов. Ключ - путь ресурса и пользователь из X-Sharer-User-Id,
+ * так как от пользователя зависит содержимое ответа (например, бронирования вещи видит только владелец).
+ * <p>
+ * Записи сбрасываются, когда через gateway проходит изменение ресурса; изменения в обход этого
+ * экземпляра gateway видны не позже чем через {@code ttl}.
+ */
+@Component
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCache implements MeterBinder {
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Cache<Key, Entry> cache;
+
+    public ResponseCache(ResponseCacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.ttlNanos = properties.getTtl().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(enabled ? properties.getMaximumSize() : 0)
+                .expireAfterWrite(properties.getRetention())
+                .recordStats()
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Nullable
+    Entry get(String resource, @Nullable Long userId) {
+        return cache.getIfPresent(new Key(resource, userId));
+    }
+
+    void put(String resource, @Nullable Long userId, ResponseEntity<Object> response) {
+        cache.put(new Key(resource, userId), new Entry(response, System.nanoTime() + ttlNanos));
+    }
+
+    public void evict(String resource) {
+        if (enabled) {
+            cache.asMap().keySet().removeIf(key -> key.resource.equals(resource));
+        }
+    }
+
+    public void evictByPrefix(String prefix) {
+        if (enabled) {
+            cache.asMap().keySet().removeIf(key -> key.resource.startsWith(prefix));
+        }
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "gatewayResponses");
+    }
+
+    @Value
+    private static class Key {
+        String resource;
+        Long userId;
+    }
+
+    @Value
+    static class Entry {
+        ResponseEntity<Object> response;
+        long freshUntilNanos;
+
+        boolean isFresh() {
+            return System.nanoTime() - freshUntilNanos < 0;
+        }
+
+        @Nullable
+        String getEtag() {
+            return response.getHeaders().getETag();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша ответов на GET /items/{id}, /requests/{id} и /users/{id}.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit-gateway.cache")
+public class ResponseCacheProperties {
+    private boolean enabled = false;
+
+    private long maximumSize = 10_000;
+
+    // столько ответ отдается из кэша без обращения к серверу
+    private Duration ttl = Duration.ofSeconds(30);
+
+    // столько устаревший ответ хранится для перепроверки по ETag (If-None-Match)
+    private Duration retention = Duration.ofMinutes(10);
+}
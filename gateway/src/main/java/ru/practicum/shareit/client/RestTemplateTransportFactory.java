@@ -0,0 +1,51 @@
+package ru.practicum.shareit.client;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+
+/**
+ * Блокирующий транспорт: запрос выполняется в потоке Tomcat, который ждет ответа сервера.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit-server.transport", havingValue = "rest-template", matchIfMissing = true)
+@RequiredArgsConstructor
+public class RestTemplateTransportFactory implements ServerTransportFactory {
+    // ответы 4xx/5xx не превращаются в исключения: тело читается один раз тем же конвертером, что и у успешных,
+    // и уходит клиенту как есть, без копии из исключения
+    private static final ResponseErrorHandler PASS_THROUGH = new DefaultResponseErrorHandler() {
+        @Override
+        public boolean hasError(ClientHttpResponse response) {
+            return false;
+        }
+    };
+
+    private final RestTemplateBuilder builder;
+    private final ClientHttpRequestFactory requestFactory;
+
+    @Override
+    public ServerTransport create(String baseUrl) {
+        RestTemplate rest = builder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(baseUrl))
+                .requestFactory(() -> requestFactory)
+                .errorHandler(PASS_THROUGH)
+                .build();
+        return (method, path, parameters, headers, body) -> {
+            HttpEntity<Object> requestEntity = new HttpEntity<>(body, headers);
+            if (parameters != null) {
+                return Mono.just(rest.exchange(path, method, requestEntity, byte[].class, parameters));
+            }
+            return Mono.just(rest.exchange(path, method, requestEntity, byte[].class));
+        };
+    }
+}
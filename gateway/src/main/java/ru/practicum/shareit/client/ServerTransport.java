@@ -0,0 +1,22 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Способ отправки запроса на сервер: блокирующий RestTemplate или неблокирующий WebClient.
+ * Тело ответа возвращается байтами, ответы 4xx/5xx - обычным ResponseEntity, а не исключением.
+ */
+public interface ServerTransport {
+
+    Mono<ResponseEntity<byte[]>> exchange(HttpMethod method,
+                                          String path,
+                                          @Nullable Map<String, Object> parameters,
+                                          HttpHeaders headers,
+                                          @Nullable Object body);
+}
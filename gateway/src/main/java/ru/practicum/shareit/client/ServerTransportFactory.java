@@ -0,0 +1,10 @@
+package ru.practicum.shareit.client;
+
+/**
+ * Создает транспорт для клиента с базовым адресом вида {@code serverUrl + API_PREFIX}.
+ * Реализация выбирается свойством {@code shareit-server.transport}.
+ */
+public interface ServerTransportFactory {
+
+    ServerTransport create(String baseUrl);
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Неблокирующий транспорт: запрос уходит через event loop Reactor Netty, поток Tomcat
+ * освобождается сразу после валидации, а ответ дописывается асинхронно. Число одновременных
+ * запросов к серверу ограничено пулом соединений, а не числом потоков.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit-server.transport", havingValue = "web-client")
+@EnableConfigurationProperties(HttpClientProperties.class)
+public class WebClientTransportFactory implements ServerTransportFactory, DisposableBean {
+    private final WebClient.Builder builder;
+    private final ConnectionProvider connectionProvider;
+
+    public WebClientTransportFactory(WebClient.Builder builder, HttpClientProperties properties) {
+        this.connectionProvider = ConnectionProvider.builder("shareit-server")
+                .maxConnections(properties.getMaxTotal())
+                .pendingAcquireTimeout(properties.getConnectionRequestTimeout())
+                .maxIdleTime(properties.getKeepAlive())
+                .evictInBackground(properties.getMaxIdleTime())
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getReadTimeout());
+        this.builder = builder.clone().clientConnector(new ReactorClientHttpConnector(httpClient));
+    }
+
+    @Override
+    public ServerTransport create(String baseUrl) {
+        WebClient webClient = builder.clone()
+                .uriBuilderFactory(new DefaultUriBuilderFactory(baseUrl))
+                .build();
+        return (method, path, parameters, headers, body) -> {
+            WebClient.RequestBodySpec request = (parameters != null
+                    ? webClient.method(method).uri(path, parameters)
+                    : webClient.method(method).uri(path))
+                    .headers(requestHeaders -> requestHeaders.addAll(headers));
+            WebClient.RequestHeadersSpec<?> spec = body != null ? request.bodyValue(body) : request;
+            // в отличие от retrieve() ответы 4xx/5xx не превращаются в исключения и уходят клиенту как есть
+            return spec.exchangeToMono(response -> response.toEntity(byte[].class));
+        };
+    }
+
+    @Override
+    public void destroy() {
+        connectionProvider.dispose();
+    }
+}
@@ -2,15 +2,16 @@ package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransportFactory;
 import ru.practicum.shareit.item.dto.RequestCommentDto;
 import ru.practicum.shareit.item.dto.RequestItemDto;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @Service
@@ -19,28 +20,34 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl,
+            ServerTransportFactory transportFactory,
+            ResponseCache responseCache) {
+        super(transportFactory.create(serverUrl + API_PREFIX), API_PREFIX, responseCache);
     }
 
-    public ResponseEntity<Object> findAllOwnerItems(Long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> findAllOwnerItems(Long userId, Integer from, Integer size, String after) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
         );
-        return get("?from={from}&size={size}", userId, parameters);
+        return getPage("?from={from}&size={size}", userId, parameters, after);
+    }
+
+    public Mono<ResponseEntity<Object>> findById(Long userId, Long itemId) {
+        return getCached("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> findById(Long userId, Long itemId) {
-        return get("/" + itemId, userId);
+    // календарь меняется с каждым бронированием, поэтому в кэш ответов не попадает
+    public Mono<ResponseEntity<Object>> findAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
     }
 
-    public ResponseEntity<Object> findByText(Long userId, String text, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> findByText(Long userId, String text, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
@@ -49,15 +56,24 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> create(Long userId, RequestItemDto requestDto) {
-        return post("", userId, requestDto);
+    public Mono<ResponseEntity<Object>> create(Long userId, RequestItemDto requestDto) {
+        return evictOnSuccess(post("", userId, requestDto), cache -> {
+            if (requestDto.getRequestId() != null) {
+                cache.evict("/requests/" + requestDto.getRequestId());
+            }
+        });
     }
 
-    public ResponseEntity<Object> update(Long userId, RequestItemDto requestDto, Long itemId) {
-        return patch("/" + itemId, userId, requestDto);
+    public Mono<ResponseEntity<Object>> update(Long userId, RequestItemDto requestDto, Long itemId) {
+        // вещь может входить в ответ на запрос, а к какому запросу она относится, gateway не знает
+        return evictOnSuccess(patch("/" + itemId, userId, requestDto), cache -> {
+            cache.evict(API_PREFIX + "/" + itemId);
+            cache.evictByPrefix("/requests/");
+        });
     }
 
-    public ResponseEntity<Object> addComment(Long userId, RequestCommentDto commentDto, Long itemId) {
-        return post("/" + itemId + "/comment", userId, commentDto);
+    public Mono<ResponseEntity<Object>> addComment(Long userId, RequestCommentDto commentDto, Long itemId) {
+        return evictOnSuccess(post("/" + itemId + "/comment", userId, commentDto),
+                cache -> cache.evict(API_PREFIX + "/" + itemId));
     }
 }
@@ -2,16 +2,20 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.dto.RequestCommentDto;
 import ru.practicum.shareit.item.dto.RequestItemDto;
+import ru.practicum.shareit.validation.ValidationService;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 
 @Controller
 @RequestMapping(path = "/items")
@@ -21,34 +25,48 @@ import javax.validation.constraints.PositiveOrZero;
 public class ItemController {
 
     private final ItemClient itemClient;
+    private final ValidationService validationService;
 
     @GetMapping
-    public ResponseEntity<Object> findAllOwnerItems(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                    @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                                    @RequestParam(defaultValue = "10") @Positive Integer size) {
+    public Mono<ResponseEntity<Object>> findAllOwnerItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                          @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                                          @RequestParam(defaultValue = "10") @Positive Integer size,
+                                                          @RequestParam(required = false) String after) {
         log.info("Получен запрос на поиск всех вещей пользователя(владельца) с ID:{}", userId);
-        return itemClient.findAllOwnerItems(userId, from, size);
+        return itemClient.findAllOwnerItems(userId, from, size, after);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> findById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                           @PathVariable Long itemId) {
+    public Mono<ResponseEntity<Object>> findById(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                 @PathVariable Long itemId) {
         log.info("Получен запрос на поиск вещи с ID:{} от пользователя с ID:{}", itemId, userId);
         return itemClient.findById(userId, itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public Mono<ResponseEntity<Object>> findAvailability(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                         @PathVariable Long itemId,
+                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                         LocalDateTime from,
+                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                         LocalDateTime to) {
+        validationService.validatePeriod(from, to);
+        log.info("Получен запрос свободных периодов вещи с ID:{} с {} по {}", itemId, from, to);
+        return itemClient.findAvailability(userId, itemId, from, to);
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<Object> findByText(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                             @RequestParam String text,
-                                             @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                             @RequestParam(defaultValue = "10") @Positive Integer size) {
+    public Mono<ResponseEntity<Object>> findByText(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                   @RequestParam String text,
+                                                   @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                                   @RequestParam(defaultValue = "10") @Positive Integer size) {
         log.info("Получен запрос на поиск вещи по тексту '{}'", text);
         return itemClient.findByText(userId, text, from, size);
     }
 
     @PostMapping
-    public ResponseEntity<Object> create(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @RequestBody @Valid RequestItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> create(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                               @RequestBody @Valid RequestItemDto itemDto) {
         log.info("Получен запрос на добавление вещи с названием:'{}' от пользователя с ID:{}",
                 itemDto.getName(),
                 userId);
@@ -56,9 +74,9 @@ public class ItemController {
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> update(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @RequestBody RequestItemDto itemDto,
-                                         @PathVariable Long itemId) {
+    public Mono<ResponseEntity<Object>> update(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                               @RequestBody RequestItemDto itemDto,
+                                               @PathVariable Long itemId) {
         log.info("Получен запрос на редактирование вещи с ID:{} от пользователя с ID:{}",
                 itemId,
                 userId);
@@ -66,9 +84,9 @@ public class ItemController {
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                             @RequestBody @Valid RequestCommentDto commentDto,
-                                             @PathVariable Long itemId) {
+    public Mono<ResponseEntity<Object>> addComment(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                   @RequestBody @Valid RequestCommentDto commentDto,
+                                                   @PathVariable Long itemId) {
         log.info("Получен запрос на добавление отзыва для вещи с ID:{} от пользователя с ID:{}",
                 itemId,
                 userId);
@@ -2,12 +2,12 @@ package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransportFactory;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.Map;
@@ -17,34 +17,32 @@ public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl,
+            ServerTransportFactory transportFactory,
+            ResponseCache responseCache) {
+        super(transportFactory.create(serverUrl + API_PREFIX), API_PREFIX, responseCache);
     }
 
-    public ResponseEntity<Object> create(Long userId, ItemRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> create(Long userId, ItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> findAllRequestsByRequestor(Long userId) {
+    public Mono<ResponseEntity<Object>> findAllRequestsByRequestor(Long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> findAllRequests(Long userId,
-                                                  Integer from,
-                                                  Integer size) {
+    public Mono<ResponseEntity<Object>> findAllRequests(Long userId,
+                                                        Integer from,
+                                                        Integer size,
+                                                        String after) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
         );
-        return get("/all?from={from}&size={size}", userId, parameters);
+        return getPage("/all?from={from}&size={size}", userId, parameters, after);
     }
 
-    public ResponseEntity<Object> findRequestById(Long userId, Long requestId) {
-        return get("/" + requestId, userId);
+    public Mono<ResponseEntity<Object>> findRequestById(Long userId, Long requestId) {
+        return getCached("/" + requestId, userId);
     }
 }
@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import javax.validation.Valid;
@@ -22,8 +23,8 @@ public class ItemRequestController {
     private final ItemRequestClient itemRequestClient;
 
     @PostMapping
-    public ResponseEntity<Object> create(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @RequestBody @Valid ItemRequestDto itemRequestDto) {
+    public Mono<ResponseEntity<Object>> create(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                               @RequestBody @Valid ItemRequestDto itemRequestDto) {
         log.info("Создать запрос на добавление вещи с описанием '{}' от пользователя с ID:{}",
                 itemRequestDto.getDescription(),
                 userId);
@@ -31,23 +32,24 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> findAllRequestsByRequestor(@RequestHeader(
+    public Mono<ResponseEntity<Object>> findAllRequestsByRequestor(@RequestHeader(
             "X-Sharer-User-Id") Long userId) {
         log.info("Поиск всех запросов на добавление вещей пользователя с ID:{}", userId);
         return itemRequestClient.findAllRequestsByRequestor(userId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> findAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                  @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                                  @RequestParam(defaultValue = "10") @Positive Integer size) {
+    public Mono<ResponseEntity<Object>> findAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                        @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                                        @RequestParam(defaultValue = "10") @Positive Integer size,
+                                                        @RequestParam(required = false) String after) {
         log.info("Поиск всех запросов на добавление вещей");
-        return itemRequestClient.findAllRequests(userId, from, size);
+        return itemRequestClient.findAllRequests(userId, from, size, after);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> findRequestById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                  @PathVariable Long requestId) {
+    public Mono<ResponseEntity<Object>> findRequestById(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                        @PathVariable Long requestId) {
         log.info("Поиск запроса на добавление вещи под ID:{}", requestId);
         return itemRequestClient.findRequestById(userId, requestId);
     }
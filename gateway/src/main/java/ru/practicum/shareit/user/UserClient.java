@@ -2,12 +2,12 @@ package ru.practicum.shareit.user;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransportFactory;
 import ru.practicum.shareit.user.dto.UserDto;
 
 @Service
@@ -15,32 +15,34 @@ public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public UserClient(@Value("${shareit-server.url}") String serverUrl,
+            ServerTransportFactory transportFactory,
+            ResponseCache responseCache) {
+        super(transportFactory.create(serverUrl + API_PREFIX), API_PREFIX, responseCache);
     }
 
-    public ResponseEntity<Object> findAll() {
+    public Mono<ResponseEntity<Object>> findAll() {
         return get("");
     }
 
-    public ResponseEntity<Object> findById(Long userId) {
-        return get("/" + userId);
+    public Mono<ResponseEntity<Object>> findById(Long userId) {
+        return getCached("/" + userId, null);
     }
 
-    public ResponseEntity<Object> create(UserDto userDto) {
+    public Mono<ResponseEntity<Object>> create(UserDto userDto) {
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> update(UserDto userDto, Long userId) {
-        return patch("/" + userId, userDto);
+    public Mono<ResponseEntity<Object>> update(UserDto userDto, Long userId) {
+        // имя пользователя входит в отзывы к вещам
+        return evictOnSuccess(patch("/" + userId, userDto), cache -> {
+            cache.evict(API_PREFIX + "/" + userId);
+            cache.evictByPrefix("/items/");
+        });
     }
 
-    public ResponseEntity<Object> delete(Long userId) {
-        return delete("/" + userId);
+    public Mono<ResponseEntity<Object>> delete(Long userId) {
+        // вместе с пользователем удаляются его вещи, запросы и бронирования
+        return evictOnSuccess(delete("/" + userId), ResponseCache::evictAll);
     }
 }
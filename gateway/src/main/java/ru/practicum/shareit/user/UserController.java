@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.validation.Create;
 import ru.practicum.shareit.validation.Update;
@@ -19,32 +20,32 @@ public class UserController {
     private final UserClient userClient;
 
     @GetMapping
-    public ResponseEntity<Object> findAll() {
+    public Mono<ResponseEntity<Object>> findAll() {
         log.info("Получен запрос на получение всех пользователей");
         return userClient.findAll();
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> findById(@PathVariable Long userId) {
+    public Mono<ResponseEntity<Object>> findById(@PathVariable Long userId) {
         log.info("Получен запрос на получение пользователя c ID:{}", userId);
         return userClient.findById(userId);
     }
 
     @PostMapping
-    public ResponseEntity<Object> create(@RequestBody @Validated(Create.class) UserDto userDto) {
+    public Mono<ResponseEntity<Object>> create(@RequestBody @Validated(Create.class) UserDto userDto) {
         log.info("Получен запрос на создание пользователя c именем: '{}'", userDto.getName());
         return userClient.create(userDto);
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> update(@RequestBody @Validated(Update.class) UserDto userDto,
-                                         @PathVariable Long userId) {
+    public Mono<ResponseEntity<Object>> update(@RequestBody @Validated(Update.class) UserDto userDto,
+                                               @PathVariable Long userId) {
         log.info("Получен запрос на редактирование пользователя c ID:{}", userId);
         return userClient.update(userDto, userId);
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> delete(@PathVariable Long userId) {
+    public Mono<ResponseEntity<Object>> delete(@PathVariable Long userId) {
         log.info("Получен запрос на удаление пользователя c ID:{}", userId);
         return userClient.delete(userId);
     }
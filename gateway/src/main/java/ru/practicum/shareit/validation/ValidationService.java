@@ -6,6 +6,8 @@ import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.exception.ValidationException;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Objects;
 
 @Service
@@ -19,5 +21,22 @@ public class ValidationService {
             throw new ValidationException("Время старта/окончания бронирования указано некорректно.");
         }
     }
-}
 
+    // пакет проверяется целиком до отправки на сервер: одна неверная запись отклоняет весь запрос
+    public void validateStartAndEnd(List<BookItemRequestDto> bookingDtos) {
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            try {
+                validateStartAndEnd(bookingDtos.get(i));
+            } catch (ValidationException e) {
+                throw new ValidationException("Запись " + i + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public void validatePeriod(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            log.warn("Начало периода должно быть раньше его конца.");
+            throw new ValidationException("Начало периода должно быть раньше его конца.");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+class BaseClientTest {
+    private final byte[] body = "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8);
+    private final List<HttpHeaders> sentHeaders = new ArrayList<>();
+
+    @Test
+    void get_whenServerResponds_thenBodyBytesAndEndToEndHeadersPassed() {
+        BaseClient client = new BaseClient((method, path, parameters, headers, requestBody) -> {
+            HttpHeaders responseHeaders = new HttpHeaders();
+            responseHeaders.setContentType(MediaType.APPLICATION_JSON);
+            responseHeaders.set("X-Next-Cursor", "MQ");
+            responseHeaders.set(HttpHeaders.TRANSFER_ENCODING, "chunked");
+            responseHeaders.set(HttpHeaders.CONNECTION, "keep-alive");
+            responseHeaders.set("Keep-Alive", "timeout=60");
+            responseHeaders.set(HttpHeaders.DATE, "Sun, 18 Oct 2026 15:38:18 GMT");
+            return Mono.just(ResponseEntity.ok().headers(responseHeaders).body(body));
+        }, "/items", cache(false, Duration.ofSeconds(30)));
+
+        ResponseEntity<Object> response = client.get("", 1L).block();
+
+        Assertions.assertNotNull(response);
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertSame(body, response.getBody());
+        Assertions.assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        Assertions.assertEquals("MQ", response.getHeaders().getFirst("X-Next-Cursor"));
+        Assertions.assertFalse(response.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING));
+        Assertions.assertFalse(response.getHeaders().containsKey(HttpHeaders.CONNECTION));
+        Assertions.assertFalse(response.getHeaders().containsKey("Keep-Alive"));
+        Assertions.assertFalse(response.getHeaders().containsKey(HttpHeaders.DATE));
+    }
+
+    @Test
+    void getCached_whenFresh_thenServerIsNotCalledAndKeyIsPerUser() {
+        BaseClient client = new BaseClient(this::respondWithEtag, "/items", cache(true, Duration.ofSeconds(30)));
+
+        client.getCached("/1", 1L).block();
+        ResponseEntity<Object> cached = client.getCached("/1", 1L).block();
+        client.getCached("/1", 2L).block();
+
+        Assertions.assertNotNull(cached);
+        Assertions.assertSame(body, cached.getBody());
+        Assertions.assertEquals(2, sentHeaders.size());
+    }
+
+    @Test
+    void getCached_whenStale_thenRevalidatedByEtag() {
+        BaseClient client = new BaseClient(this::respondWithEtag, "/items", cache(true, Duration.ZERO));
+
+        client.getCached("/1", 1L).block();
+        ResponseEntity<Object> revalidated = client.getCached("/1", 1L).block();
+
+        Assertions.assertNotNull(revalidated);
+        Assertions.assertEquals(HttpStatus.OK, revalidated.getStatusCode());
+        Assertions.assertSame(body, revalidated.getBody());
+        Assertions.assertEquals(List.of("\"1\""), sentHeaders.get(1).getIfNoneMatch());
+    }
+
+    @Test
+    void evictOnSuccess_whenResourceChanged_thenNextReadGoesToServer() {
+        BaseClient client = new BaseClient(this::respondWithEtag, "/items", cache(true, Duration.ofSeconds(30)));
+
+        client.getCached("/1", 1L).block();
+        client.evictOnSuccess(client.patch("/1", 1L), cache -> cache.evict("/items/1")).block();
+        client.getCached("/1", 1L).block();
+
+        Assertions.assertEquals(3, sentHeaders.size());
+        Assertions.assertTrue(sentHeaders.get(2).getIfNoneMatch().isEmpty());
+    }
+
+    private Mono<ResponseEntity<byte[]>> respondWithEtag(Object method, String path, Object parameters,
+                                                        HttpHeaders headers, Object requestBody) {
+        sentHeaders.add(headers);
+        if (headers.getIfNoneMatch().contains("\"1\"")) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"1\"").build());
+        }
+        return Mono.just(ResponseEntity.ok().eTag("\"1\"").contentType(MediaType.APPLICATION_JSON).body(body));
+    }
+
+    private ResponseCache cache(boolean enabled, Duration ttl) {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setEnabled(enabled);
+        properties.setTtl(ttl);
+        return new ResponseCache(properties);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.client;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+class HttpClientConfigTest {
+    private final HttpClientConfig config = new HttpClientConfig();
+    private final HttpClientProperties properties = new HttpClientProperties();
+
+    @Test
+    void connectionManager_whenPropertiesSet_thenPoolSized() {
+        properties.setMaxTotal(50);
+        properties.setMaxPerRoute(20);
+
+        PoolingHttpClientConnectionManager manager = config.shareItServerConnectionManager(properties);
+
+        Assertions.assertEquals(50, manager.getMaxTotal());
+        Assertions.assertEquals(20, manager.getDefaultMaxPerRoute());
+        manager.close();
+    }
+
+    @Test
+    void keepAliveStrategy_whenServerSendsTimeout_thenShorterOneUsed() {
+        properties.setKeepAlive(Duration.ofSeconds(15));
+        ConnectionKeepAliveStrategy strategy = HttpClientConfig.keepAliveStrategy(properties);
+
+        Assertions.assertEquals(15_000, strategy.getKeepAliveDuration(response(null), new BasicHttpContext()));
+        Assertions.assertEquals(5_000, strategy.getKeepAliveDuration(response("timeout=5"), new BasicHttpContext()));
+        Assertions.assertEquals(15_000, strategy.getKeepAliveDuration(response("timeout=60"), new BasicHttpContext()));
+    }
+
+    private HttpResponse response(String keepAlive) {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        if (keepAlive != null) {
+            response.addHeader("Keep-Alive", keepAlive);
+        }
+        return response;
+    }
+}
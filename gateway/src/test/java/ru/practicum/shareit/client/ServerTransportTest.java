@@ -0,0 +1,93 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.stream.Stream;
+
+class ServerTransportTest {
+    private static HttpServer server;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/items", exchange -> {
+            String query = exchange.getRequestURI().getRawQuery();
+            boolean found = "from=0&size=1".equals(query)
+                    && "1".equals(exchange.getRequestHeaders().getFirst("X-Sharer-User-Id"));
+            byte[] body = (found ? "[{\"id\":1}]" : "{\"error\":\"Вещь не найдена\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+            exchange.getResponseHeaders().add("X-Next-Cursor", "MQ");
+            exchange.sendResponseHeaders(found ? 200 : 404, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort() + "/items";
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+
+    static Stream<ServerTransportFactory> factories() {
+        return Stream.of(
+                new RestTemplateTransportFactory(new RestTemplateBuilder(), new SimpleClientHttpRequestFactory()),
+                new WebClientTransportFactory(WebClient.builder(), new HttpClientProperties())
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("factories")
+    void exchange_whenServerAnswersOk_thenBodyAndHeadersPassed(ServerTransportFactory factory) {
+        ResponseEntity<byte[]> response = factory.create(baseUrl)
+                .exchange(HttpMethod.GET, "?from={from}&size={size}", Map.of("from", 0, "size", 1), headers(), null)
+                .block();
+
+        Assertions.assertNotNull(response);
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertArrayEquals("[{\"id\":1}]".getBytes(StandardCharsets.UTF_8), response.getBody());
+        Assertions.assertEquals("MQ", response.getHeaders().getFirst("X-Next-Cursor"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("factories")
+    void exchange_whenServerAnswersNotFound_thenStatusPassed(ServerTransportFactory factory) {
+        ResponseEntity<byte[]> response = factory.create(baseUrl)
+                .exchange(HttpMethod.GET, "/99", null, headers(), null)
+                .block();
+
+        Assertions.assertNotNull(response);
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        Assertions.assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        Assertions.assertArrayEquals("{\"error\":\"Вещь не найдена\"}".getBytes(StandardCharsets.UTF_8),
+                response.getBody());
+    }
+
+    private HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", "1");
+        return headers;
+    }
+}
@@ -7,6 +7,7 @@ import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.exception.ValidationException;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 class ValidationServiceTest {
     private final ValidationService service = new ValidationService();
@@ -25,4 +26,25 @@ class ValidationServiceTest {
     void validateStartAndEnd_whenStartOrEndNotValid_thenValidationException() {
         Assertions.assertThrows(ValidationException.class, () -> service.validateStartAndEnd(bookingDto));
     }
-}
\ No newline at end of file
+
+    @Test
+    void validateStartAndEnd_whenOneEntryOfBatchNotValid_thenValidationExceptionWithIndex() {
+        BookItemRequestDto validDto = BookItemRequestDto.builder()
+                .start(LocalDateTime.of(2023, 6, 29, 12, 23, 23))
+                .end(LocalDateTime.of(2023, 6, 30, 12, 23, 23))
+                .itemId(1L)
+                .build();
+
+        ValidationException exception = Assertions.assertThrows(ValidationException.class,
+                () -> service.validateStartAndEnd(List.of(validDto, bookingDto)));
+        Assertions.assertTrue(exception.getMessage().startsWith("Запись 1: "));
+    }
+
+    @Test
+    void validatePeriod_whenFromNotBeforeTo_thenValidationException() {
+        LocalDateTime moment = LocalDateTime.of(2124, 6, 1, 0, 0);
+
+        Assertions.assertThrows(ValidationException.class, () -> service.validatePeriod(moment, moment));
+        service.validatePeriod(moment, moment.plusDays(1));
+    }
+}
@@ -2,9 +2,15 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.ResponseBookingDto;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.List;
 
@@ -23,6 +29,13 @@ public class BookingController {
         return bookingService.create(userId, bookingDto);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                 @RequestBody List<BookingDto> bookingDtos) {
+        log.info("Получен пакетный запрос на {} бронирований от пользователя с ID:{}", bookingDtos.size(), userId);
+        return bookingService.createAll(userId, bookingDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     public ResponseBookingDto changeStatus(@RequestHeader("X-Sharer-User-Id") Long userId,
                                            @PathVariable Long bookingId,
@@ -33,34 +46,54 @@ public class BookingController {
         return bookingService.changeStatus(userId, bookingId, approved);
     }
 
+    @PatchMapping("/owner/batch")
+    public List<BookingDecisionResultDto> changeStatuses(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                         @RequestBody List<BookingDecisionDto> decisions) {
+        log.info("Получен пакетный запрос на изменение статуса {} бронирований от пользователя с ID:{}",
+                decisions.size(),
+                userId);
+        return bookingService.changeStatuses(userId, decisions);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseBookingDto findBookingInfo(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                              @PathVariable Long bookingId) {
+                                              @PathVariable Long bookingId,
+                                              WebRequest request) {
         log.info("Получен запрос на поиск информации по бронированию с ID:{} от пользователя с ID:{}",
                 bookingId,
                 userId);
+        // If-None-Match совпал с текущей версией - ответ 304 без тела
+        if (request.checkNotModified(bookingService.findETag(userId, bookingId))) {
+            return null;
+        }
         return bookingService.findBookingInfo(userId, bookingId);
     }
 
     @GetMapping
-    public List<ResponseBookingDto> findAllBookingByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                           @RequestParam BookingState state,
-                                                           @RequestParam Integer from,
-                                                           @RequestParam Integer size) {
+    public ResponseEntity<List<ResponseBookingDto>> findAllBookingByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                           @RequestParam BookingState state,
+                                                                           @RequestParam Integer from,
+                                                                           @RequestParam Integer size,
+                                                                           @RequestParam(required = false) String after) {
         log.info("Получен запрос на поиск бронирований пользователя с ID:{} по категории {}",
                 userId,
                 state);
-        return bookingService.findAllBookingByUserId(userId, state, from, size);
+        List<ResponseBookingDto> bookings = bookingService.findAllBookingByUserId(userId, state, from, size,
+                after == null ? null : PageCursor.decode(after));
+        return PageCursor.toResponse(bookings, size, booking -> PageCursor.of(booking.getStart(), booking.getId()));
     }
 
     @GetMapping("/owner")
-    public List<ResponseBookingDto> findAllBookingByOwnerItems(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                               @RequestParam BookingState state,
-                                                               @RequestParam Integer from,
-                                                               @RequestParam Integer size) {
+    public ResponseEntity<List<ResponseBookingDto>> findAllBookingByOwnerItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                               @RequestParam BookingState state,
+                                                                               @RequestParam Integer from,
+                                                                               @RequestParam Integer size,
+                                                                               @RequestParam(required = false) String after) {
         log.info("Получен запрос на поиск бронирований всех вещей владельца с ID:{} по категории {}",
                 userId,
                 state);
-        return bookingService.findAllBookingByOwnerItems(userId, state, from, size);
+        List<ResponseBookingDto> bookings = bookingService.findAllBookingByOwnerItems(userId, state, from, size,
+                after == null ? null : PageCursor.decode(after));
+        return PageCursor.toResponse(bookings, size, booking -> PageCursor.of(booking.getStart(), booking.getId()));
     }
 }
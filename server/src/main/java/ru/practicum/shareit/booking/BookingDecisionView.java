@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+// бронирование с вещью и периодом - все, что нужно для смены статуса без загрузки сущности
+public interface BookingDecisionView {
+    Long getId();
+
+    BookingStatus getStatus();
+
+    Long getItemId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Переводит ожидающие бронирования, начало которых наступило, в EXPIRED. Наступившие бронирования
+ * выбираются по индексу (status, start_time, id) пачками не больше batchSize, каждая пачка - в своей
+ * транзакции, за запуск - не больше maxBatches пачек. Статус меняется тем же обновлением ожидающих
+ * бронирований с блокировкой строк, что и решения владельца, поэтому одновременное одобрение не перетирается.
+ * <p>
+ * Метрики: shareit.bookings.expiry.backlog - сколько наступивших ожидающих бронирований осталось после
+ * запуска, shareit.bookings.expiry.lag - насколько самое старое из них опоздало к началу запуска (секунды),
+ * shareit.bookings.expired - сколько бронирований истекло всего.
+ */
+@Component
+@Slf4j
+public class BookingExpiryScheduler {
+
+    private final BookingRepository bookingRepository;
+    private final BookingOverlapGuard bookingOverlapGuard;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatches;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Counter expired;
+
+    public BookingExpiryScheduler(BookingRepository bookingRepository,
+                                  BookingOverlapGuard bookingOverlapGuard,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${shareit.bookings.expiry-batch-size:500}") int batchSize,
+                                  @Value("${shareit.bookings.expiry-max-batches:20}") int maxBatches) {
+        this.bookingRepository = bookingRepository;
+        this.bookingOverlapGuard = bookingOverlapGuard;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        Gauge.builder("shareit.bookings.expiry.backlog", backlog, AtomicLong::get)
+                .description("Ожидающие бронирования, начало которых наступило")
+                .register(meterRegistry);
+        Gauge.builder("shareit.bookings.expiry.lag", lagSeconds, AtomicLong::get)
+                .description("Опоздание самого старого наступившего ожидающего бронирования")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.expired = Counter.builder("shareit.bookings.expired")
+                .description("Ожидающие бронирования, переведенные в EXPIRED")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.expiry-delay:PT1M}")
+    public void expire() {
+        LocalDateTime now = LocalDateTime.now();
+        long total = 0;
+        boolean drained = false;
+        for (int batch = 0; batch < maxBatches && !drained; batch++) {
+            List<BookingDecisionView> due = transactionTemplate.execute(status -> expireBatch(now));
+            if (batch == 0) {
+                // очередь упорядочена по началу, поэтому первое бронирование первой пачки - самое старое
+                lagSeconds.set(due.isEmpty() ? 0 : Duration.between(due.get(0).getStart(), now).getSeconds());
+            }
+            total += due.size();
+            drained = due.size() < batchSize;
+        }
+        // после неполной пачки очередь пуста, иначе остаток дождется следующего запуска
+        backlog.set(drained ? 0 : bookingRepository.countDueBookings(BookingStatus.WAITING, now));
+        if (total > 0) {
+            log.info("Обработаны наступившие ожидающие бронирования: {}, осталось в очереди {}", total, backlog.get());
+        }
+    }
+
+    private List<BookingDecisionView> expireBatch(LocalDateTime now) {
+        List<BookingDecisionView> due = bookingRepository.findDueBookings(BookingStatus.WAITING, now,
+                PageRequest.of(0, batchSize));
+        if (due.isEmpty()) {
+            return due;
+        }
+        Map<Long, BookingStatus> statuses = new LinkedHashMap<>();
+        for (BookingDecisionView booking : due) {
+            statuses.put(booking.getId(), BookingStatus.EXPIRED);
+        }
+        // бронирования, которые владелец успел одобрить или отклонить, не меняются
+        Set<Long> updated = bookingRepository.updateWaitingStatuses(statuses);
+        for (BookingDecisionView booking : due) {
+            if (updated.contains(booking.getId())) {
+                bookingOverlapGuard.release(booking.getItemId(), booking.getStart(), booking.getEnd());
+            }
+        }
+        expired.increment(updated.size());
+        return due;
+    }
+}
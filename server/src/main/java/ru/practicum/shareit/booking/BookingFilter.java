@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Условия выборки бронирований. Обязательны только сторона и пользователь, остальное сужает выборку,
+ * если указано.
+ */
+@Value
+@Builder
+public class BookingFilter {
+    @NonNull
+    BookingParty party;
+
+    @NonNull
+    Long userId;
+
+    @Builder.Default
+    BookingState state = BookingState.ALL;
+
+    Long itemId;
+
+    // бронирования, пересекающиеся с отрезком [rangeStart, rangeEnd]
+    LocalDateTime rangeStart;
+
+    LocalDateTime rangeEnd;
+
+    // выборка начинается сразу после курсора по ключу (start, id)
+    PageCursor after;
+}
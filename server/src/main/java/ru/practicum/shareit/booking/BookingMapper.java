@@ -1,7 +1,6 @@
 package ru.practicum.shareit.booking;
 
 import lombok.experimental.UtilityClass;
-import org.modelmapper.ModelMapper;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingForItemDto;
 import ru.practicum.shareit.booking.dto.ResponseBookingDto;
@@ -16,7 +15,6 @@ import java.util.List;
 
 @UtilityClass
 public class BookingMapper {
-    private final ModelMapper modelMapper = new ModelMapper();
 
     public Booking mapToBooking(BookingDto bookingDto, Item item, User user) {
         return Booking.builder()
@@ -32,12 +30,31 @@ public class BookingMapper {
                 .id(booking.getId())
                 .start(booking.getStart())
                 .end(booking.getEnd())
-                .item(modelMapper.map(booking.getItem(), ItemDto.class))
-                .booker(modelMapper.map(booking.getBooker(), UserDto.class))
+                .item(mapToItemDto(booking.getItem()))
+                .booker(mapToUserDto(booking.getBooker()))
                 .status(booking.getStatus())
                 .build();
     }
 
+    private ItemDto mapToItemDto(Item item) {
+        return ItemDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                // у прокси запроса ID доступен без обращения к базе
+                .requestId(item.getItemRequest() == null ? null : item.getItemRequest().getId())
+                .build();
+    }
+
+    private UserDto mapToUserDto(User user) {
+        return UserDto.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .build();
+    }
+
     public BookingForItemDto mapToBookingForItemDto(Booking booking) {
         return booking == null ? null : BookingForItemDto.builder()
                 .id(booking.getId())
@@ -47,6 +64,15 @@ public class BookingMapper {
                 .build();
     }
 
+    public BookingForItemDto mapToBookingForItemDto(ItemBookingView booking) {
+        return booking == null ? null : BookingForItemDto.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .bookerId(booking.getBookerId())
+                .build();
+    }
+
     public List<ResponseBookingDto> mapToResponseBookingDto(Iterable<Booking> bookings) {
         List<ResponseBookingDto> dtos = new ArrayList<>();
         for (Booking booking : bookings) {
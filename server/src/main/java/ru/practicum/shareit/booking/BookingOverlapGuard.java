@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingPeriodDto;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface BookingOverlapGuard {
+    // статусы бронирований, занимающих вещь
+    List<BookingStatus> RESERVING_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    /**
+     * Занять интервал [start, end) вещи или бросить BookingOverlapException, если он пересекается
+     * с ожидающим или подтвержденным бронированием. При откате транзакции интервал освобождается.
+     */
+    void reserve(Long itemId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Освободить интервал отклоненного или отмененного бронирования после фиксации транзакции.
+     */
+    void release(Long itemId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Забыть занятые интервалы вещей после завершения транзакции: их бронирования удалены в обход сервиса
+     * бронирований (вместе с пользователем) или созданы в обход проверки (другим экземпляром сервера).
+     */
+    void evict(Collection<Long> itemIds);
+
+    /**
+     * Занятые периоды вещи, пересекающиеся с [from, to), по возрастанию начала.
+     */
+    List<BookingPeriodDto> findReservedPeriods(Long itemId, LocalDateTime from, LocalDateTime to);
+}
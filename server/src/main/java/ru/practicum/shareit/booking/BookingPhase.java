@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+public enum BookingPhase {
+    FUTURE, // бронирование еще не началось
+    CURRENT, // бронирование идет
+    PAST; // бронирование закончилось
+
+    public static BookingPhase of(LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        if (end != null && end.isBefore(now)) {
+            return PAST;
+        }
+        if (start != null && !start.isAfter(now)) {
+            return CURRENT;
+        }
+        return FUTURE;
+    }
+}
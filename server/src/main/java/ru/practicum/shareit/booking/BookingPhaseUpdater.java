@@ -0,0 +1,33 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Продвигает фазы бронирований по мере наступления начала и окончания. Между запусками фаза может отставать,
+ * поэтому запросы по фазе дополнительно проверяют время (см. BookingRepository).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingPhaseUpdater {
+
+    private static final List<BookingPhase> ACTIVE_PHASES = List.of(BookingPhase.FUTURE, BookingPhase.CURRENT);
+
+    private final BookingRepository bookingRepository;
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.phase-update-delay:PT1M}")
+    @Transactional
+    public void update() {
+        int finished = bookingRepository.updatePhaseFinished(ACTIVE_PHASES, BookingPhase.PAST);
+        int started = bookingRepository.updatePhaseStarted(BookingPhase.FUTURE, BookingPhase.CURRENT);
+        if (started > 0 || finished > 0) {
+            log.info("Обновлены фазы бронирований: началось {}, закончилось {}", started, finished);
+        }
+    }
+}
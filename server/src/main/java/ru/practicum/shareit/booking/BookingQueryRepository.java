@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.ResponseBookingDto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface BookingQueryRepository {
+    /**
+     * Бронирования по условиям фильтра в порядке (start desc, id desc) одним запросом:
+     * столбцы вещи и арендатора выбираются соединением и сразу складываются в ответ.
+     * Из pageable берутся только смещение и размер страницы.
+     */
+    List<ResponseBookingDto> findBookings(BookingFilter filter, Pageable pageable);
+
+    /**
+     * Перевести ожидающие бронирования в новые статусы: строки блокируются на запись, статус и версия
+     * меняются через сущность. Возвращает ID измененных бронирований: статус остальных уже сменил другой запрос.
+     */
+    Set<Long> updateWaitingStatuses(Map<Long, BookingStatus> statuses);
+}
@@ -0,0 +1,193 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.ResponseBookingDto;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class BookingQueryRepositoryImpl implements BookingQueryRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    public List<ResponseBookingDto> findBookings(BookingFilter filter, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item");
+        Join<Booking, User> booker = booking.join("booker");
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        Path<Long> id = booking.get("id");
+
+        // числовые значения Criteria API Hibernate 5 подставляет в SQL литералами, поэтому значения фильтра
+        // передаются параметрами: текст запроса не зависит от пользователя и курсора, и план переиспользуется
+        Map<String, Object> parameters = new HashMap<>();
+        List<Predicate> where = new ArrayList<>();
+        ParameterExpression<Long> userId = parameter(cb, Long.class, "userId", filter.getUserId(), parameters);
+        if (filter.getParty() == BookingParty.BOOKER) {
+            where.add(cb.equal(booker.get("id"), userId));
+        } else {
+            where.add(cb.equal(item.get("owner").get("id"), userId));
+        }
+        addStatePredicate(cb, booking, filter.getState(), where);
+        if (filter.getItemId() != null) {
+            where.add(cb.equal(item.get("id"),
+                    parameter(cb, Long.class, "itemId", filter.getItemId(), parameters)));
+        }
+        if (filter.getRangeStart() != null) {
+            where.add(cb.greaterThanOrEqualTo(end,
+                    parameter(cb, LocalDateTime.class, "rangeStart", filter.getRangeStart(), parameters)));
+        }
+        if (filter.getRangeEnd() != null) {
+            where.add(cb.lessThanOrEqualTo(start,
+                    parameter(cb, LocalDateTime.class, "rangeEnd", filter.getRangeEnd(), parameters)));
+        }
+        PageCursor after = filter.getAfter();
+        if (after != null) {
+            ParameterExpression<LocalDateTime> afterTime =
+                    parameter(cb, LocalDateTime.class, "afterTime", after.getTime(), parameters);
+            ParameterExpression<Long> afterId = parameter(cb, Long.class, "afterId", after.getId(), parameters);
+            // первая часть условия - диапазон по индексу на start
+            where.add(cb.lessThanOrEqualTo(start, afterTime));
+            where.add(cb.or(cb.lessThan(start, afterTime), cb.lessThan(id, afterId)));
+        }
+
+        query.multiselect(
+                        id,
+                        start,
+                        end,
+                        booking.get("status"),
+                        item.get("id"),
+                        item.get("name"),
+                        item.get("description"),
+                        item.get("available"),
+                        // ID запроса берется из внешнего ключа, без соединения с requests
+                        item.get("itemRequest").get("id"),
+                        booker.get("id"),
+                        booker.get("name"),
+                        booker.get("email"))
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(cb.desc(start), cb.desc(id));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        parameters.forEach(typedQuery::setParameter);
+        return typedQuery
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultStream()
+                .map(BookingQueryRepositoryImpl::mapToResponseBookingDto)
+                .collect(Collectors.toList());
+    }
+
+    private static <T> ParameterExpression<T> parameter(CriteriaBuilder cb, Class<T> type, String name, T value,
+                                                        Map<String, Object> parameters) {
+        parameters.put(name, value);
+        return cb.parameter(type, name);
+    }
+
+    private static void addStatePredicate(CriteriaBuilder cb, Root<Booking> booking, BookingState state,
+                                          List<Predicate> where) {
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        Expression<LocalDateTime> now = currentTimestamp(cb);
+        switch (state) {
+            case CURRENT:
+                // идущие бронирования выбираются по фазе диапазоном индекса (user_id или item_id, phase, start_time);
+                // FUTURE с наступившим началом - те, что начались после последнего запуска BookingPhaseUpdater
+                where.add(booking.get("phase").in(BookingPhase.CURRENT, BookingPhase.FUTURE));
+                where.add(cb.lessThanOrEqualTo(start, now));
+                where.add(cb.greaterThanOrEqualTo(end, now));
+                break;
+            case PAST:
+                where.add(cb.lessThan(end, now));
+                break;
+            case FUTURE:
+                where.add(cb.greaterThan(start, now));
+                break;
+            case WAITING:
+                where.add(cb.equal(booking.get("status"), BookingStatus.WAITING));
+                break;
+            case REJECTED:
+                where.add(cb.equal(booking.get("status"), BookingStatus.REJECTED));
+                break;
+            default:
+                break;
+        }
+    }
+
+    // время берется у базы, как и в массовых обновлениях фаз, чтобы часы приложения и базы не расходились
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Expression<LocalDateTime> currentTimestamp(CriteriaBuilder cb) {
+        return (Expression) cb.currentTimestamp();
+    }
+
+    private static ResponseBookingDto mapToResponseBookingDto(Tuple row) {
+        return ResponseBookingDto.builder()
+                .id(row.get(0, Long.class))
+                .start(row.get(1, LocalDateTime.class))
+                .end(row.get(2, LocalDateTime.class))
+                .status(row.get(3, BookingStatus.class))
+                .item(ItemDto.builder()
+                        .id(row.get(4, Long.class))
+                        .name(row.get(5, String.class))
+                        .description(row.get(6, String.class))
+                        .available(row.get(7, Boolean.class))
+                        .requestId(row.get(8, Long.class))
+                        .build())
+                .booker(UserDto.builder()
+                        .id(row.get(9, Long.class))
+                        .name(row.get(10, String.class))
+                        .email(row.get(11, String.class))
+                        .build())
+                .build();
+    }
+
+    // ожидающие бронирования читаются с блокировкой строк и меняются как сущности: версия растет через @Version,
+    // обновления уходят пакетом, а измененными считаются ровно заблокированные строки - их статус уже никто не сменит
+    @Override
+    public Set<Long> updateWaitingStatuses(Map<Long, BookingStatus> statuses) {
+        if (statuses.isEmpty()) {
+            return Set.of();
+        }
+        List<Booking> waiting = entityManager.createQuery("select b from Booking b " +
+                        "where b.id in :ids and b.status = :waiting order by b.id", Booking.class)
+                .setParameter("ids", statuses.keySet())
+                .setParameter("waiting", BookingStatus.WAITING)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        Set<Long> updated = new HashSet<>();
+        for (Booking booking : waiting) {
+            booking.setStatus(statuses.get(booking.getId()));
+            updated.add(booking.getId());
+        }
+        entityManager.flush();
+        return updated;
+    }
+}
@@ -2,107 +2,93 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.entity.Booking;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-
-    List<Booking> findByBookerId(Long userId, Pageable pageable);
-
-    @Query("select b " +
-            "from Booking b " +
-            "join b.booker br " +
-            "where br.id = :userId and (CURRENT_TIMESTAMP between b.start and b.end)")
-    List<Booking> findCurrentBookingByUserId(@Param("userId") Long userId, Pageable pageable);
-
-    @Query("select b " +
-            "from Booking b " +
-            "join b.booker br " +
-            "where br.id = :userId and CURRENT_TIMESTAMP > b.end")
-    List<Booking> findPastBookingByUserId(@Param("userId") Long userId, Pageable pageable);
-
-    @Query("select b " +
-            "from Booking b " +
-            "join b.booker br " +
-            "where br.id = :userId and CURRENT_TIMESTAMP < b.start")
-    List<Booking> findFutureBookingByUserId(@Param("userId") Long userId, Pageable pageable);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingQueryRepository {
 
     @Query("select b " +
             "from Booking b " +
-            "join b.booker br " +
-            "where br.id = :userId and b.status = 'WAITING'")
-    List<Booking> findWaitingBookingByUserId(@Param("userId") Long userId, Pageable pageable);
-
-    @Query("select b " +
-            "from Booking b " +
-            "join b.booker br " +
-            "where br.id = :userId and b.status = 'REJECTED'")
-    List<Booking> findRejectedBookingByUserId(@Param("userId") Long userId, Pageable pageable);
-
-    @Query("select b " +
-            "from Booking b " +
-            "join b.item i " +
-            "where i.owner.id = :userId")
-    List<Booking> findAllBookingByOwnerItems(@Param("userId") Long userId, Pageable pageable);
-
-    @Query("select b " +
-            "from Booking b " +
-            "join b.item i " +
-            "where i.owner.id = :userId and (CURRENT_TIMESTAMP between b.start and b.end)")
-    List<Booking> findCurrentBookingByOwnerItems(@Param("userId") Long userId, Pageable pageable);
-
-    @Query("select b " +
-            "from Booking b " +
-            "join b.item i " +
-            "where i.owner.id = :userId and CURRENT_TIMESTAMP > b.end")
-    List<Booking> findPastBookingByOwnerItems(@Param("userId") Long userId, Pageable pageable);
+            "where b.item.id = :itemId and b.start < CURRENT_TIMESTAMP " +
+            "order by b.end desc")
+    List<Booking> findLastBookingForItem(@Param("itemId") Long itemId);
 
     @Query("select b " +
             "from Booking b " +
-            "join b.item i " +
-            "where i.owner.id = :userId and CURRENT_TIMESTAMP < b.start")
-    List<Booking> findFutureBookingByOwnerItems(@Param("userId") Long userId, Pageable pageable);
+            "where b.item.id = :itemId and b.start > CURRENT_TIMESTAMP " +
+            "order by b.end asc")
+    List<Booking> findNextBookingForItem(@Param("itemId") Long itemId);
 
-    @Query("select b " +
+    // по одному последнему бронированию на каждую вещь из списка, независимо от длины истории
+    @Query(value = "select b.item_id as \"itemId\", b.id as \"id\", b.start_time as \"start\", " +
+            "b.end_time as \"end\", b.user_id as \"bookerId\" " +
+            "from (select bk.*, row_number() over (partition by bk.item_id " +
+            "order by bk.end_time desc, bk.id desc) as rn " +
+            "from bookings as bk " +
+            "where bk.item_id in (:itemIds) and bk.start_time < current_timestamp) as b " +
+            "where b.rn = 1", nativeQuery = true)
+    List<ItemBookingView> findLastBookingForItems(@Param("itemIds") Collection<Long> itemIds);
+
+    // по одному ближайшему будущему бронированию на каждую вещь из списка
+    @Query(value = "select b.item_id as \"itemId\", b.id as \"id\", b.start_time as \"start\", " +
+            "b.end_time as \"end\", b.user_id as \"bookerId\" " +
+            "from (select bk.*, row_number() over (partition by bk.item_id " +
+            "order by bk.end_time asc, bk.id asc) as rn " +
+            "from bookings as bk " +
+            "where bk.item_id in (:itemIds) and bk.start_time > current_timestamp) as b " +
+            "where b.rn = 1", nativeQuery = true)
+    List<ItemBookingView> findNextBookingForItems(@Param("itemIds") Collection<Long> itemIds);
+
+    // бронирования из списка, вещи которых принадлежат владельцу, - проверка прав одним запросом
+    @Query("select b.id as id, b.status as status, i.id as itemId, b.start as start, b.end as end " +
             "from Booking b " +
             "join b.item i " +
-            "where i.owner.id = :userId and b.status = 'WAITING'")
-    List<Booking> findWaitingBookingByOwnerItems(@Param("userId") Long userId, Pageable pageable);
+            "where b.id in :bookingIds and i.owner.id = :ownerId")
+    List<BookingDecisionView> findOwnedBookings(@Param("bookingIds") Collection<Long> bookingIds,
+                                                @Param("ownerId") Long ownerId);
 
-    @Query("select b " +
+    // очередь истечения: ожидающие бронирования, начало которых наступило, в порядке начала
+    @Query("select b.id as id, b.status as status, b.item.id as itemId, b.start as start, b.end as end " +
             "from Booking b " +
-            "join b.item i " +
-            "where i.owner.id = :userId and b.status = 'REJECTED'")
-    List<Booking> findRejectedBookingByOwnerItems(@Param("userId") Long userId, Pageable pageable);
+            "where b.status = :status and b.start <= :now " +
+            "order by b.start, b.id")
+    List<BookingDecisionView> findDueBookings(@Param("status") BookingStatus status,
+                                              @Param("now") LocalDateTime now,
+                                              Pageable pageable);
 
-    @Query("select b " +
-            "from Booking b " +
-            "where b.item.id = :itemId and b.start < CURRENT_TIMESTAMP " +
-            "order by b.end desc")
-    List<Booking> findLastBookingForItem(@Param("itemId") Long itemId);
+    @Query("select count(b) from Booking b where b.status = :status and b.start <= :now")
+    long countDueBookings(@Param("status") BookingStatus status, @Param("now") LocalDateTime now);
 
-    @Query("select b " +
+    // ожидающие и подтвержденные бронирования вещи, которые еще не закончились: занятые интервалы
+    @Query("select b.item.id as itemId, b.id as id, b.start as start, b.end as end, b.booker.id as bookerId " +
             "from Booking b " +
-            "where b.item.id = :itemId and b.start > CURRENT_TIMESTAMP " +
-            "order by b.end asc")
-    List<Booking> findNextBookingForItem(@Param("itemId") Long itemId);
+            "where b.item.id = :itemId and b.status in :statuses and b.end > CURRENT_TIMESTAMP")
+    List<ItemBookingView> findActiveBookingsForItem(@Param("itemId") Long itemId,
+                                                    @Param("statuses") Collection<BookingStatus> statuses);
 
-    @Query("select b " +
+    // вещи, которые занимают еще не закончившиеся бронирования арендатора
+    @Query("select distinct b.item.id " +
             "from Booking b " +
-            "join b.item i " +
-            "where i.owner.id = :userId and b.start < CURRENT_TIMESTAMP " +
-            "order by b.end desc")
-    List<Booking> findLastBookingForAllOwnerItems(@Param("userId") Long userId);
+            "where b.booker.id = :bookerId and b.status in :statuses and b.end > CURRENT_TIMESTAMP")
+    List<Long> findReservedItemIdsByBookerId(@Param("bookerId") Long bookerId,
+                                             @Param("statuses") Collection<BookingStatus> statuses);
 
-    @Query("select b " +
+    // занимающие вещь бронирования, пересекающиеся с периодом [from, to)
+    @Query("select b.item.id as itemId, b.id as id, b.start as start, b.end as end, b.booker.id as bookerId " +
             "from Booking b " +
-            "join b.item i " +
-            "where i.owner.id = :userId and b.start > CURRENT_TIMESTAMP " +
-            "order by b.end asc")
-    List<Booking> findNextBookingForAllOwnerItems(@Param("userId") Long userId);
+            "where b.item.id = :itemId and b.status in :statuses and b.start < :to and b.end > :from " +
+            "order by b.start")
+    List<ItemBookingView> findBookingsForItemBetween(@Param("itemId") Long itemId,
+                                                     @Param("statuses") Collection<BookingStatus> statuses,
+                                                     @Param("from") LocalDateTime from,
+                                                     @Param("to") LocalDateTime to);
 
     @Query(value = "select case when exists (select * " +
             "from bookings as b " +
@@ -111,4 +97,22 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "else cast(0 as bit) end", nativeQuery = true)
     Boolean checkIsBookerAndFinished(@Param("userId") Long userId,
                                      @Param("itemId") Long itemId);
+
+    // ответ о бронировании включает вещь и арендатора, поэтому ETag складывается из трех версий;
+    // пустой результат, если бронирования нет или пользователь не арендатор и не владелец вещи
+    @Query("select concat(str(b.version), '-', str(i.version), '-', str(br.version)) " +
+            "from Booking b " +
+            "join b.item i " +
+            "join b.booker br " +
+            "where b.id = :bookingId and (br.id = :userId or i.owner.id = :userId)")
+    Optional<String> findVersionTagById(@Param("bookingId") Long bookingId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("update Booking b set b.phase = :current where b.phase = :future and b.start <= CURRENT_TIMESTAMP")
+    int updatePhaseStarted(@Param("future") BookingPhase future, @Param("current") BookingPhase current);
+
+    @Modifying
+    // условие перечисляет активные фазы, а не исключает прошедшую: так запрос идет по индексу (phase, end_time)
+    @Query("update Booking b set b.phase = :past where b.phase in :active and b.end < CURRENT_TIMESTAMP")
+    int updatePhaseFinished(@Param("active") Collection<BookingPhase> active, @Param("past") BookingPhase past);
 }
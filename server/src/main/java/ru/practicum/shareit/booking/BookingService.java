@@ -1,20 +1,36 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.ResponseBookingDto;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.List;
 
 public interface BookingService {
     ResponseBookingDto create(Long userId, BookingDto booking);
 
+    /**
+     * Создать бронирования пакетом не больше 500 записей. Ответ выровнен по входному списку: для каждой
+     * записи - созданное бронирование или ошибка. Пересечение с одновременным запросом, найденное ограничением
+     * базы при записи, повторяет пакет в новой транзакции; весь пакет отклоняется с BookingOverlapException,
+     * только если такие конфликты повторяются во всех попытках.
+     */
+    List<BookingBatchResultDto> createAll(Long userId, List<BookingDto> bookings);
+
     ResponseBookingDto changeStatus(Long userId, Long bookingId, Boolean approved);
 
+    List<BookingDecisionResultDto> changeStatuses(Long userId, List<BookingDecisionDto> decisions);
+
     ResponseBookingDto findBookingInfo(Long userId, Long bookingId);
 
+    String findETag(Long userId, Long bookingId);
+
     List<ResponseBookingDto> findAllBookingByUserId(Long userId, BookingState state, Integer from,
-                                                    Integer size);
+                                                    Integer size, PageCursor after);
 
     List<ResponseBookingDto> findAllBookingByOwnerItems(Long userId, BookingState state, Integer from,
-                                                        Integer size);
+                                                        Integer size, PageCursor after);
 }
@@ -2,40 +2,58 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.ResponseBookingDto;
 import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.exception.BatchSizeExceededException;
+import ru.practicum.shareit.exception.BookingOverlapException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.exception.InvalidCursorException;
 import ru.practicum.shareit.exception.ItemNotAvailableException;
 import ru.practicum.shareit.exception.ReceivedStatusAlreadyExistsException;
 import ru.practicum.shareit.exception.UserNotOwnerOrBookerException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.pagination.CustomPageRequest;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserIdFilter;
 import ru.practicum.shareit.user.UserRepository;
 
-import java.util.Collections;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-
-import static org.springframework.data.domain.Sort.Direction.DESC;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Transactional
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BookingServiceImpl implements BookingService {
+    // SQLSTATE нарушения ограничения-исключения PostgreSQL
+    private static final String EXCLUSION_VIOLATION = "23P01";
+    // пакет обрабатывается в одной транзакции; gateway ограничивает его так же, но сервер вызывают и напрямую
+    private static final int MAX_BATCH_SIZE = 500;
 
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
-
-    private static final Sort SORT = Sort.by(DESC, "start");
+    private final UserIdFilter userIdFilter;
+    private final BookingOverlapGuard bookingOverlapGuard;
 
     @Override
     public ResponseBookingDto create(Long userId, BookingDto bookingDto) {
@@ -43,11 +61,82 @@ public class BookingServiceImpl implements BookingService {
         Item item = findItem(bookingDto.getItemId());
         checkIsAvailable(item);
         checkIsOwner(userId, item.getOwner().getId());
+        bookingOverlapGuard.reserve(item.getId(), bookingDto.getStart(), bookingDto.getEnd());
         Booking booking = BookingMapper.mapToBooking(bookingDto, item, booker);
-        return BookingMapper.mapToResponseBookingDto(bookingRepository.save(booking));
+        Booking saved = bookingRepository.save(booking);
+        flushBookings();
+        return BookingMapper.mapToResponseBookingDto(saved);
+    }
+
+    // арендатор и все вещи пакета загружаются одним запросом каждый, отклоненные записи не мешают остальным;
+    // пересечения, видимые в момент запроса, отклоняют отдельные записи в обоих режимах проверки.
+    // Конфликт с одновременным запросом находит ограничение базы при сбросе, и транзакция откатывается целиком:
+    // тогда пакет повторяется в новой транзакции, где бронирование того запроса уже видно проверке
+    // и отклоняет только пересекающиеся записи. 409 на весь пакет - только если конфликты не прекращаются
+    @Override
+    @Retryable(value = BookingOverlapException.class,
+            maxAttemptsExpression = "${shareit.optimistic-lock.max-attempts:3}",
+            backoff = @Backoff(delayExpression = "${shareit.optimistic-lock.backoff-delay:20}",
+                    multiplier = 2, random = true))
+    public List<BookingBatchResultDto> createAll(Long userId, List<BookingDto> bookingDtos) {
+        checkBatchSize(bookingDtos.size());
+        User booker = findUser(userId);
+        Set<Long> itemIds = bookingDtos.stream()
+                .map(BookingDto::getItemId)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Booking> bookings = new ArrayList<>(bookingDtos.size());
+        List<String> errors = new ArrayList<>(bookingDtos.size());
+        for (BookingDto bookingDto : bookingDtos) {
+            try {
+                Item item = items.get(bookingDto.getItemId());
+                if (item == null) {
+                    throw itemNotFound(bookingDto.getItemId());
+                }
+                checkIsAvailable(item);
+                checkIsOwner(userId, item.getOwner().getId());
+                bookingOverlapGuard.reserve(item.getId(), bookingDto.getStart(), bookingDto.getEnd());
+                bookings.add(BookingMapper.mapToBooking(bookingDto, item, booker));
+                errors.add(null);
+            } catch (EntityNotFoundException | ItemNotAvailableException | BookingOverlapException e) {
+                bookings.add(null);
+                errors.add(e.getMessage());
+            }
+        }
+        // ID выдает последовательность, поэтому вставки уходят в базу пакетами при сбросе контекста
+        List<Booking> accepted = bookings.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        bookingRepository.saveAll(accepted);
+        try {
+            flushBookings();
+        } catch (BookingOverlapException e) {
+            // бронирование создано в обход проверки (другим экземпляром сервера): повторная попытка
+            // должна прочитать интервалы вещей пакета из базы заново
+            bookingOverlapGuard.evict(itemIds);
+            log.warn("Пакетное бронирование пользователя с ID:{} пересеклось с одновременным запросом", userId);
+            throw e;
+        }
+        List<BookingBatchResultDto> results = new ArrayList<>(bookingDtos.size());
+        for (int i = 0; i < bookings.size(); i++) {
+            results.add(BookingBatchResultDto.builder()
+                    .booking(BookingMapper.mapToResponseBookingDto(bookings.get(i)))
+                    .error(errors.get(i))
+                    .build());
+        }
+        log.info("Пакетное бронирование пользователя с ID:{}: создано {} из {}",
+                userId, accepted.size(), bookingDtos.size());
+        return results;
     }
 
+    // при одновременном изменении повторная попытка перечитывает бронирование: если статус уже выставлен,
+    // ответом будет ReceivedStatusAlreadyExistsException, а не конфликт
     @Override
+    @Retryable(value = OptimisticLockingFailureException.class,
+            maxAttemptsExpression = "${shareit.optimistic-lock.max-attempts:3}",
+            backoff = @Backoff(delayExpression = "${shareit.optimistic-lock.backoff-delay:20}",
+                    multiplier = 2, random = true))
     public ResponseBookingDto changeStatus(Long userId, Long bookingId, Boolean approved) {
         Booking booking = findBooking(bookingId);
         checkIsApproverIsOwner(userId, booking.getItem().getOwner().getId()); // проверить, что пользователь - владелец вещи
@@ -57,10 +146,64 @@ public class BookingServiceImpl implements BookingService {
             booking.setStatus(BookingStatus.APPROVED);
         } else {
             booking.setStatus(BookingStatus.REJECTED);
+            bookingOverlapGuard.release(booking.getItem().getId(), booking.getStart(), booking.getEnd());
         }
         return BookingMapper.mapToResponseBookingDto(bookingRepository.save(booking));
     }
 
+    // права проверяются одним запросом с соединением, переходы - одним обновлением заблокированных строк;
+    // повторное решение по тому же бронированию в пакете отклоняется, как и для уже измененного статуса
+    @Override
+    public List<BookingDecisionResultDto> changeStatuses(Long userId, List<BookingDecisionDto> decisions) {
+        checkBatchSize(decisions.size());
+        checkIsUserExists(userId);
+        Set<Long> bookingIds = decisions.stream()
+                .map(BookingDecisionDto::getBookingId)
+                .collect(Collectors.toSet());
+        Map<Long, BookingDecisionView> owned = bookingRepository.findOwnedBookings(bookingIds, userId).stream()
+                .collect(Collectors.toMap(BookingDecisionView::getId, Function.identity()));
+        Map<Long, BookingStatus> statuses = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>(decisions.size());
+        for (BookingDecisionDto decision : decisions) {
+            Long bookingId = decision.getBookingId();
+            BookingDecisionView booking = owned.get(bookingId);
+            if (decision.getApproved() == null) {
+                // сервер вызывают не только через gateway, поэтому решение без approved не считается отказом
+                errors.add("Не указано решение approved для бронирования c ID:" + bookingId + ".");
+            } else if (booking == null) {
+                errors.add("Бронирование c ID:" + bookingId +
+                        " не существует или пользователь c ID:" + userId + " не является владельцем!");
+            } else if (booking.getStatus() != BookingStatus.WAITING || statuses.containsKey(bookingId)) {
+                errors.add("Переданный статус уже установлен.");
+            } else {
+                statuses.put(bookingId, decision.getApproved() ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+                errors.add(null);
+            }
+        }
+        Set<Long> updated = bookingRepository.updateWaitingStatuses(statuses);
+        List<BookingDecisionResultDto> results = new ArrayList<>(decisions.size());
+        for (int i = 0; i < decisions.size(); i++) {
+            Long bookingId = decisions.get(i).getBookingId();
+            BookingDecisionResultDto.BookingDecisionResultDtoBuilder result = BookingDecisionResultDto.builder()
+                    .bookingId(bookingId);
+            if (errors.get(i) != null) {
+                result.error(errors.get(i));
+            } else if (!updated.contains(bookingId)) {
+                result.error("Статус бронирования уже изменен другим запросом.");
+            } else {
+                BookingStatus status = statuses.get(bookingId);
+                if (status == BookingStatus.REJECTED) {
+                    BookingDecisionView booking = owned.get(bookingId);
+                    bookingOverlapGuard.release(booking.getItemId(), booking.getStart(), booking.getEnd());
+                }
+                result.status(status);
+            }
+            results.add(result.build());
+        }
+        log.info("Владелец с ID:{} изменил статус {} бронирований из {}", userId, updated.size(), decisions.size());
+        return results;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ResponseBookingDto findBookingInfo(Long userId, Long bookingId) {
@@ -71,79 +214,69 @@ public class BookingServiceImpl implements BookingService {
         return BookingMapper.mapToResponseBookingDto(booking);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public String findETag(Long userId, Long bookingId) {
+        return bookingRepository.findVersionTagById(bookingId, userId).orElse(null);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ResponseBookingDto> findAllBookingByUserId(Long userId, BookingState state, Integer from,
-                                                           Integer size) {
+                                                           Integer size, PageCursor after) {
         checkIsUserExists(userId); // проверить существует ли пользователь
-        List<Booking> bookingList = findAllBookingByUserIdByState(userId, state, from, size);
-        return bookingList != null ?
-                BookingMapper.mapToResponseBookingDto(bookingList) : Collections.emptyList();
+        return findBookings(BookingParty.BOOKER, userId, state, from, size, after);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ResponseBookingDto> findAllBookingByOwnerItems(Long userId, BookingState state, Integer from,
-                                                               Integer size) {
+                                                               Integer size, PageCursor after) {
         checkIsUserExists(userId); // проверить существует ли пользователь
-        List<Booking> bookingList = findAllBookingByOwnerItemsByState(userId, state, from, size);
-        return bookingList != null ?
-                BookingMapper.mapToResponseBookingDto(bookingList) : Collections.emptyList();
-    }
-
-    private List<Booking> findAllBookingByUserIdByState(Long userId, BookingState state, Integer from,
-                                                        Integer size) {
-        Pageable pageable = CustomPageRequest.of(from, size, SORT);
-        List<Booking> bookingList;
-        switch (state) {
-            case CURRENT:
-                bookingList = bookingRepository.findCurrentBookingByUserId(userId, pageable);
-                break;
-            case PAST:
-                bookingList = bookingRepository.findPastBookingByUserId(userId, pageable);
-                break;
-            case FUTURE:
-                bookingList = bookingRepository.findFutureBookingByUserId(userId, pageable);
-                break;
-            case WAITING:
-                bookingList = bookingRepository.findWaitingBookingByUserId(userId, pageable);
-                break;
-            case REJECTED:
-                bookingList = bookingRepository.findRejectedBookingByUserId(userId, pageable);
-                break;
-            default:
-                bookingList = bookingRepository.findByBookerId(userId, pageable);
-                break;
+        return findBookings(BookingParty.OWNER, userId, state, from, size, after);
+    }
+
+    // с курсором выборка начинается сразу после него, from не используется
+    private List<ResponseBookingDto> findBookings(BookingParty party, Long userId, BookingState state,
+                                                  Integer from, Integer size, PageCursor after) {
+        if (after != null && after.getTime() == null) {
+            throw new InvalidCursorException("Курсор бронирований должен содержать время начала.");
         }
-        return bookingList;
-    }
-
-    private List<Booking> findAllBookingByOwnerItemsByState(Long userId, BookingState state,
-                                                            Integer from,
-                                                            Integer size) {
-        List<Booking> bookingList;
-        Pageable pageable = CustomPageRequest.of(from, size, SORT);
-        switch (state) {
-            case CURRENT:
-                bookingList = bookingRepository.findCurrentBookingByOwnerItems(userId, pageable);
-                break;
-            case PAST:
-                bookingList = bookingRepository.findPastBookingByOwnerItems(userId, pageable);
-                break;
-            case FUTURE:
-                bookingList = bookingRepository.findFutureBookingByOwnerItems(userId, pageable);
-                break;
-            case WAITING:
-                bookingList = bookingRepository.findWaitingBookingByOwnerItems(userId, pageable);
-                break;
-            case REJECTED:
-                bookingList = bookingRepository.findRejectedBookingByOwnerItems(userId, pageable);
-                break;
-            default:
-                bookingList = bookingRepository.findAllBookingByOwnerItems(userId, pageable);
-                break;
+        BookingFilter filter = BookingFilter.builder()
+                .party(party)
+                .userId(userId)
+                .state(state)
+                .after(after)
+                .build();
+        return bookingRepository.findBookings(filter, CustomPageRequest.of(after == null ? from : 0, size));
+    }
+
+    // вставка выполняется сразу, чтобы нарушение ограничения-исключения стало ответом 409, а не ошибкой фиксации
+    private static void checkBatchSize(int size) {
+        if (size > MAX_BATCH_SIZE) {
+            throw new BatchSizeExceededException("Пакет из " + size + " записей превышает допустимый размер "
+                    + MAX_BATCH_SIZE + ".");
         }
-        return bookingList;
+    }
+
+    private void flushBookings() {
+        try {
+            bookingRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (isExclusionViolation(e)) {
+                throw new BookingOverlapException("Вещь уже забронирована на пересекающийся период.");
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isExclusionViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private void checkIsOwnerOrBooker(Long userId, Long ownerId, Long bookerId) {
@@ -170,7 +303,7 @@ public class BookingServiceImpl implements BookingService {
     }
 
     private void checkIsUserExists(Long userId) {
-        if (!userRepository.existsById(userId)) {
+        if (!userIdFilter.mightExist(userId) || !userRepository.existsById(userId)) {
             throw new EntityNotFoundException("Пользователь c ID:" +
                     userId + " не существует!", User.class);
         }
@@ -185,8 +318,12 @@ public class BookingServiceImpl implements BookingService {
 
     private Item findItem(Long itemId) {
         return itemRepository.findById(itemId)
-                .orElseThrow(() -> new EntityNotFoundException("Вещь c ID:" +
-                        itemId + " не существует!", Item.class));
+                .orElseThrow(() -> itemNotFound(itemId));
+    }
+
+    private EntityNotFoundException itemNotFound(Long itemId) {
+        return new EntityNotFoundException("Вещь c ID:" +
+                itemId + " не существует!", Item.class);
     }
 
     private User findUser(Long userId) {
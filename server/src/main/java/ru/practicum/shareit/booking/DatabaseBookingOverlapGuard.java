@@ -0,0 +1,91 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingPeriodDto;
+import ru.practicum.shareit.exception.BookingOverlapException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Пересечения проверяются запросом к базе до вставки, а интервалы, занятые в текущей транзакции и еще
+ * не записанные, - по списку транзакции: так пакет бронирований получает ответ по каждой записи.
+ * Бронирование, созданное другим запросом между проверкой и вставкой, отклоняет ограничение-исключение
+ * bookings_no_overlap (PostgreSQL); такой конфликт обнаруживается только при сбросе, и пакет повторяется
+ * в новой транзакции, где то бронирование уже видно запросу проверки.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.bookings.overlap-check", havingValue = "database")
+@RequiredArgsConstructor
+public class DatabaseBookingOverlapGuard implements BookingOverlapGuard {
+
+    private final BookingRepository bookingRepository;
+
+    @Override
+    public void reserve(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            // пустой интервал ни с чем не пересекается
+            return;
+        }
+        List<BookingPeriodDto> pending = pendingReservations().computeIfAbsent(itemId, id -> new ArrayList<>());
+        boolean overlapsPending = pending.stream()
+                .anyMatch(period -> period.getStart().isBefore(end) && period.getEnd().isAfter(start));
+        if (overlapsPending
+                || !bookingRepository.findBookingsForItemBetween(itemId, RESERVING_STATUSES, start, end).isEmpty()) {
+            throw new BookingOverlapException("Вещь с ID: " + itemId +
+                    " уже забронирована на пересекающийся период.");
+        }
+        pending.add(BookingPeriodDto.builder()
+                .start(start)
+                .end(end)
+                .build());
+    }
+
+    @Override
+    public void release(Long itemId, LocalDateTime start, LocalDateTime end) {
+    }
+
+    @Override
+    public void evict(Collection<Long> itemIds) {
+    }
+
+    @Override
+    public List<BookingPeriodDto> findReservedPeriods(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return bookingRepository.findBookingsForItemBetween(itemId, RESERVING_STATUSES, from, to).stream()
+                .map(booking -> BookingPeriodDto.builder()
+                        .start(booking.getStart())
+                        .end(booking.getEnd())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    // интервалы, занятые в текущей транзакции; без транзакции проверяется только база
+    @SuppressWarnings("unchecked")
+    private Map<Long, List<BookingPeriodDto>> pendingReservations() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new HashMap<>();
+        }
+        Map<Long, List<BookingPeriodDto>> pending =
+                (Map<Long, List<BookingPeriodDto>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DatabaseBookingOverlapGuard.this);
+                }
+            });
+        }
+        return pending;
+    }
+}
@@ -0,0 +1,291 @@
+package ru.practicum.shareit.booking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingPeriodDto;
+import ru.practicum.shareit.exception.BookingOverlapException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Занятые интервалы хранятся по вещам. Интервалы одной вещи не пересекаются, поэтому упорядоченные
+ * по началу они упорядочены и по концу: пересечение с новым интервалом возможно только у последнего
+ * интервала, начавшегося раньше его конца, и проверка занимает O(log n).
+ * <p>
+ * Интервалы вещи загружаются из базы при первом бронировании. Вещи защищены полосой блокировок по ID:
+ * бронирования разных вещей почти никогда не ждут друг друга, а блокировка держится только на время
+ * проверки, не до фиксации транзакции. Бронирования, созданные другими экземплярами сервера, здесь
+ * не видны - их отклоняет ограничение-исключение в PostgreSQL. По тем же интервалам строится календарь
+ * свободных периодов вещи.
+ * <p>
+ * Зафиксированные интервалы хранятся только для вещей, к которым недавно обращались: кэш ограничен
+ * по размеру и времени без обращений, вытесненная вещь при следующем обращении загружается из базы заново.
+ * Резервы еще не зафиксированных транзакций в базе не видны, поэтому лежат отдельно от кэша и не вытесняются:
+ * проверка и календарь учитывают и те, и другие. После фиксации резерв переходит в кэш, после завершения
+ * транзакции в любом случае удаляется из незафиксированных.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.bookings.overlap-check", havingValue = "memory", matchIfMissing = true)
+public class IntervalBookingOverlapGuard implements BookingOverlapGuard {
+    private static final int STRIPES = 256;
+
+    private final BookingRepository bookingRepository;
+
+    private final Lock[] locks = createLocks();
+    private final Cache<Long, ItemIntervals> items;
+    private final Map<Long, ItemIntervals> pending = new ConcurrentHashMap<>();
+
+    public IntervalBookingOverlapGuard(BookingRepository bookingRepository,
+                                       @Value("${shareit.bookings.overlap-cache.maximum-size:100000}") long maximumSize,
+                                       @Value("${shareit.bookings.overlap-cache.expire-after-access:PT30M}")
+                                       Duration expireAfterAccess) {
+        this.bookingRepository = bookingRepository;
+        this.items = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+    }
+
+    @Override
+    public void reserve(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            // пустой интервал ни с чем не пересекается
+            return;
+        }
+        boolean transactional = TransactionSynchronizationManager.isSynchronizationActive();
+        Lock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            ItemIntervals committed = intervalsOf(itemId);
+            committed.removeFinished(LocalDateTime.now());
+            ItemIntervals uncommitted = pending.get(itemId);
+            if (committed.overlaps(start, end) || uncommitted != null && uncommitted.overlaps(start, end)) {
+                throw new BookingOverlapException("Вещь с ID: " + itemId +
+                        " уже забронирована на пересекающийся период.");
+            }
+            if (transactional) {
+                pending.computeIfAbsent(itemId, id -> new ItemIntervals()).put(start, end);
+            } else {
+                committed.put(start, end);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (transactional) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                // выполняется раньше afterCommit освобождений, зарегистрированных той же транзакцией позже
+                @Override
+                public void afterCommit() {
+                    commit(itemId, start, end);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    removePending(itemId, start, end);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void release(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(itemId, start, end);
+                }
+            });
+        } else {
+            remove(itemId, start, end);
+        }
+    }
+
+    @Override
+    public void evict(Collection<Long> itemIds) {
+        List<Long> ids = List.copyOf(itemIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // и после отката: вытеснение только заставляет перечитать интервалы из базы, а незафиксированные
+            // резервы других транзакций хранятся отдельно от кэша
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ids.forEach(IntervalBookingOverlapGuard.this::invalidate);
+                }
+            });
+        } else {
+            ids.forEach(this::invalidate);
+        }
+    }
+
+    @Override
+    public List<BookingPeriodDto> findReservedPeriods(Long itemId, LocalDateTime from, LocalDateTime to) {
+        Lock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<BookingPeriodDto> periods = intervalsOf(itemId).find(from, to, now);
+            ItemIntervals uncommitted = pending.get(itemId);
+            if (uncommitted != null) {
+                periods.addAll(uncommitted.find(from, to, now));
+                periods.sort(Comparator.comparing(BookingPeriodDto::getStart));
+            }
+            return periods;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // вызывается под блокировкой вещи
+    private ItemIntervals intervalsOf(Long itemId) {
+        ItemIntervals intervals = items.getIfPresent(itemId);
+        if (intervals == null) {
+            intervals = load(itemId);
+            items.put(itemId, intervals);
+        }
+        return intervals;
+    }
+
+    private ItemIntervals load(Long itemId) {
+        ItemIntervals intervals = new ItemIntervals();
+        for (ItemBookingView booking : bookingRepository.findActiveBookingsForItem(itemId, RESERVING_STATUSES)) {
+            intervals.put(booking.getStart(), booking.getEnd());
+        }
+        return intervals;
+    }
+
+    private void remove(Long itemId, LocalDateTime start, LocalDateTime end) {
+        Lock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            ItemIntervals intervals = items.getIfPresent(itemId);
+            if (intervals != null) {
+                intervals.remove(start, end);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // загруженный позже фиксации кэш уже содержит интервал из базы, незагруженный прочитает его при загрузке
+    private void commit(Long itemId, LocalDateTime start, LocalDateTime end) {
+        Lock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            ItemIntervals intervals = items.getIfPresent(itemId);
+            if (intervals != null) {
+                intervals.put(start, end);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removePending(Long itemId, LocalDateTime start, LocalDateTime end) {
+        Lock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            ItemIntervals intervals = pending.get(itemId);
+            if (intervals != null) {
+                intervals.remove(start, end);
+                if (intervals.isEmpty()) {
+                    pending.remove(itemId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void invalidate(Long itemId) {
+        Lock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            items.invalidate(itemId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Lock lockFor(Long itemId) {
+        return locks[Long.hashCode(itemId) & (STRIPES - 1)];
+    }
+
+    private static Lock[] createLocks() {
+        Lock[] locks = new Lock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    /**
+     * Непересекающиеся интервалы одной вещи: начало - конец. Меняется только под блокировкой вещи.
+     */
+    private static final class ItemIntervals {
+        private final NavigableMap<LocalDateTime, LocalDateTime> intervals = new TreeMap<>();
+
+        private boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> previous = intervals.lowerEntry(end);
+            return previous != null && previous.getValue().isAfter(start);
+        }
+
+        private List<BookingPeriodDto> find(LocalDateTime from, LocalDateTime to, LocalDateTime now) {
+            removeFinished(now);
+            List<BookingPeriodDto> periods = new ArrayList<>();
+            // начавшийся раньше from интервал может его захватывать
+            Map.Entry<LocalDateTime, LocalDateTime> previous = intervals.lowerEntry(from);
+            if (previous != null && previous.getValue().isAfter(from)) {
+                periods.add(period(previous.getKey(), previous.getValue()));
+            }
+            for (Map.Entry<LocalDateTime, LocalDateTime> interval : intervals.subMap(from, true, to, false).entrySet()) {
+                periods.add(period(interval.getKey(), interval.getValue()));
+            }
+            return periods;
+        }
+
+        private static BookingPeriodDto period(LocalDateTime start, LocalDateTime end) {
+            return BookingPeriodDto.builder()
+                    .start(start)
+                    .end(end)
+                    .build();
+        }
+
+        private void put(LocalDateTime start, LocalDateTime end) {
+            intervals.put(start, end);
+        }
+
+        private void remove(LocalDateTime start, LocalDateTime end) {
+            intervals.remove(start, end);
+        }
+
+        private boolean isEmpty() {
+            return intervals.isEmpty();
+        }
+
+        // концы возрастают вместе с началами, поэтому закончившиеся интервалы всегда в голове
+        private void removeFinished(LocalDateTime now) {
+            Iterator<LocalDateTime> ends = intervals.values().iterator();
+            while (ends.hasNext() && !ends.next().isAfter(now)) {
+                ends.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.BookingStatus;
+
+/**
+ * Итог одного решения владельца: новый статус бронирования или причина отказа.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingDecisionResultDto {
+
+    private Long bookingId;
+
+    private BookingStatus status;
+
+    private String error;
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+import static ru.practicum.shareit.configuration.ApplicationConfig.TIME_FORMAT;
+
+/**
+ * Период [start, end) в календаре вещи.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingPeriodDto {
+
+    @JsonFormat(pattern = TIME_FORMAT)
+    private LocalDateTime start;
+
+    @JsonFormat(pattern = TIME_FORMAT)
+    private LocalDateTime end;
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking.entity;
 
 import lombok.*;
+import ru.practicum.shareit.booking.BookingPhase;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.user.User;
@@ -17,7 +18,8 @@ import java.time.LocalDateTime;
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "start_time")
@@ -37,4 +39,19 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     @Builder.Default
     private BookingStatus status = BookingStatus.WAITING;
+
+    // меняется только массовыми обновлениями BookingPhaseUpdater, поэтому сохранение сущности его не трогает
+    @Enumerated(EnumType.STRING)
+    @Column(updatable = false)
+    private BookingPhase phase;
+
+    @Version
+    private long version;
+
+    @PrePersist
+    void initPhase() {
+        if (phase == null) {
+            phase = BookingPhase.of(start, end, LocalDateTime.now());
+        }
+    }
 }
@@ -1,16 +1,5 @@
 package ru.practicum.shareit.configuration;
 
-import org.modelmapper.ModelMapper;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-
-@Configuration
 public class ApplicationConfig {
     public static final String TIME_FORMAT = "yyyy-MM-dd'T'HH:mm:ss";
-
-    @Bean
-    public ModelMapper modelMapper() {
-        ModelMapper modelMapper = new ModelMapper();
-        return modelMapper;
-    }
 }
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кэш второго уровня Hibernate на Caffeine (JCache).
+ * <p>
+ * Каждая фабрика сессий получает собственный менеджер кэшей: при закрытии Hibernate закрывает его,
+ * и общий менеджер по умолчанию сломал бы другие контексты в той же JVM (тесты, бенчмарки).
+ * Регионы ограничены по размеру и времени жизни записи.
+ */
+public class EntityCacheRegionFactory extends JCacheRegionFactory {
+    public static final String MAXIMUM_SIZE = "shareit.cache.maximum_size";
+    public static final String EXPIRE_AFTER_WRITE = "shareit.cache.expire_after_write_seconds";
+
+    private static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+    private static final long DEFAULT_EXPIRE_AFTER_WRITE = 600;
+
+    private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+    private long expireAfterWriteSeconds = DEFAULT_EXPIRE_AFTER_WRITE;
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    protected CacheManager resolveCacheManager(SessionFactoryOptions settings, Map properties) {
+        maximumSize = getLong(properties, MAXIMUM_SIZE, DEFAULT_MAXIMUM_SIZE);
+        expireAfterWriteSeconds = getLong(properties, EXPIRE_AFTER_WRITE, DEFAULT_EXPIRE_AFTER_WRITE);
+        CachingProvider provider = getCachingProvider(properties);
+        return provider.getCacheManager(URI.create("shareit-" + UUID.randomUUID()), getClassLoader(provider));
+    }
+
+    @Override
+    protected Cache<Object, Object> createCache(String regionName) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(expireAfterWriteSeconds)));
+        return getCacheManager().createCache(regionName, configuration);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static long getLong(Map properties, String name, long defaultValue) {
+        Object value = properties.get(name);
+        return value == null ? defaultValue : Long.parseLong(value.toString());
+    }
+}
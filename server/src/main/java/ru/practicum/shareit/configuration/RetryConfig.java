@@ -0,0 +1,10 @@
+package ru.practicum.shareit.configuration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.annotation.EnableRetry;
+
+// совет повтора применяется раньше транзакционного, поэтому каждая попытка идет в новой транзакции
+@Configuration
+@EnableRetry
+public class RetryConfig {
+}
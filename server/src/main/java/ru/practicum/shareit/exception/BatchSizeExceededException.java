@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exception;
+
+public class BatchSizeExceededException extends RuntimeException {
+    public BatchSizeExceededException(String s) {
+        super(s);
+    }
+}
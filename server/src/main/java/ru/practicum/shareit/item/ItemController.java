@@ -2,12 +2,18 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dto.BookingPeriodDto;
 import ru.practicum.shareit.item.comment.RequestCommentDto;
 import ru.practicum.shareit.item.comment.ResponseCommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ResponseItemDto;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -19,20 +25,39 @@ public class ItemController {
     private final ItemService itemService;
 
     @GetMapping
-    public List<ResponseItemDto> findAllOwnerItems(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                   @RequestParam Integer from,
-                                                   @RequestParam Integer size) {
+    public ResponseEntity<List<ResponseItemDto>> findAllOwnerItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                   @RequestParam Integer from,
+                                                                   @RequestParam Integer size,
+                                                                   @RequestParam(required = false) String after) {
         log.info("Получен запрос на поиск всех вещей пользователя(владельца) с ID:{}", userId);
-        return itemService.findAllOwnerItems(userId, from, size);
+        List<ResponseItemDto> items = itemService.findAllOwnerItems(userId, from, size,
+                after == null ? null : PageCursor.decode(after));
+        return PageCursor.toResponse(items, size, item -> PageCursor.of(item.getId()));
     }
 
     @GetMapping("/{itemId}")
     public ResponseItemDto findById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                    @PathVariable Long itemId) {
+                                    @PathVariable Long itemId,
+                                    WebRequest request) {
         log.info("Получен запрос на поиск вещи с ID:{} от пользователя с ID:{}", itemId, userId);
+        // If-None-Match совпал с текущей версией - ответ 304 без тела
+        if (request.checkNotModified(itemService.findETag(userId, itemId))) {
+            return null;
+        }
         return itemService.findById(userId, itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public List<BookingPeriodDto> findAvailability(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                   @PathVariable Long itemId,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                   LocalDateTime from,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                   LocalDateTime to) {
+        log.info("Получен запрос свободных периодов вещи с ID:{} с {} по {}", itemId, from, to);
+        return itemService.findAvailability(userId, itemId, from, to);
+    }
+
     @GetMapping("/search")
     public List<ItemDto> findByText(@RequestHeader("X-Sharer-User-Id") Long userId,
                                     @RequestParam String text,
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.RequestCommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+@Mapper(componentModel = "spring")
+public interface ItemDtoMapper {
+    @Mapping(target = "requestId", source = "itemRequest.id")
+    ItemDto mapToItemDto(Item item);
+
+    // владелец и запрос подставляются сервисом
+    @Mapping(target = "owner", ignore = true)
+    @Mapping(target = "itemRequest", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    Item mapToItem(ItemDto itemDto);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "item", ignore = true)
+    @Mapping(target = "author", ignore = true)
+    @Mapping(target = "created", ignore = true)
+    Comment mapToComment(RequestCommentDto commentDto);
+}
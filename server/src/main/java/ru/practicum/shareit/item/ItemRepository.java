@@ -3,23 +3,59 @@ package ru.practicum.shareit.item;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.ItemRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
     List<Item> findByOwnerIdOrderByIdAsc(Long userId, Pageable pageable);
 
+    // выборка по ключу: следующая страница начинается сразу после вещи с ID afterId
+    List<Item> findByOwnerIdAndIdGreaterThanOrderByIdAsc(Long userId, Long afterId, Pageable pageable);
+
+    // на PostgreSQL условия ilike обслуживаются GIN-индексами pg_trgm (миграция V2__item_search_trgm.sql),
+    // совпадения по названию выдаются раньше совпадений только по описанию;
+    // %, _ и \ в тексте экранируются и ищутся как обычные символы - так же, как в индексе TrigramItemSearchEngine
     @Query(value = "select * " +
             "from items as i " +
-            "where (i.item_name ilike %:text% or i.description ilike %:text%) " +
-            "and i.available = true", nativeQuery = true)
+            "where (i.item_name ilike %:#{escape(#text)}% escape '\\' " +
+            "or i.description ilike %:#{escape(#text)}% escape '\\') " +
+            "and i.available = true " +
+            "order by case when i.item_name ilike %:#{escape(#text)}% escape '\\' then 0 else 1 end, i.id",
+            nativeQuery = true)
     List<Item> findByText(@Param("text") String text, Pageable pageable);
 
+    List<ItemSearchView> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
     List<Item> findByItemRequestIn(List<ItemRequest> requests, Sort sort);
 
     List<Item> findByItemRequest(ItemRequest request, Sort sort);
-}
\ No newline at end of file
+
+    @Query("select i.id from Item i where i.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Modifying
+    @Query("delete from Item i where i.owner.id = :ownerId")
+    void deleteAllByOwnerId(@Param("ownerId") Long ownerId);
+
+    // из этих значений строится ETag ответа findById. ID из пула последовательности выдаются не по порядку
+    // вставки, поэтому наибольший ID новую строку не выдает: по отзывам и бронированиям берутся количество и
+    // сумма id * 2^20 + версия (автора - для отзывов, ведь имя автора входит в отзыв; самого бронирования -
+    // для бронирований, ведь его статус виден в ответе). Сумма меняется при любой замене строки, а версия
+    // при любом ее изменении; пустой результат, если вещи или пользователя нет
+    @Query("select i.version as version, i.owner.id as ownerId, " +
+            "(select count(c) from Comment c where c.item = i) as commentCount, " +
+            "(select sum(c.id * 1048576 + a.version) from Comment c join c.author a where c.item = i) " +
+            "as commentAuthorsVersion, " +
+            "(select count(b) from Booking b where b.item = i) as bookingCount, " +
+            "(select sum(b.id * 1048576 + b.version) from Booking b where b.item = i) as bookingsVersion, " +
+            "(select min(b.start) from Booking b where b.item = i and b.start > CURRENT_TIMESTAMP) as nextStart " +
+            "from Item i " +
+            "where i.id = :itemId and exists (select u.id from User u where u.id = :userId)")
+    Optional<ItemVersionView> findVersionById(@Param("itemId") Long itemId, @Param("userId") Long userId);
+}
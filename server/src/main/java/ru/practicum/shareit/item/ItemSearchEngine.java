@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+public interface ItemSearchEngine {
+    /**
+     * Доступные вещи, в названии или описании которых встречается text (без учета регистра).
+     * Совпадения по названию идут раньше совпадений только по описанию, внутри группы - по ID.
+     */
+    List<Item> findByText(String text, Pageable pageable);
+
+    /**
+     * Сообщить движку о новой или измененной вещи.
+     */
+    void index(Item item);
+}
@@ -1,17 +1,24 @@
 package ru.practicum.shareit.item;
 
+import ru.practicum.shareit.booking.dto.BookingPeriodDto;
 import ru.practicum.shareit.item.comment.RequestCommentDto;
 import ru.practicum.shareit.item.comment.ResponseCommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ResponseItemDto;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
-    List<ResponseItemDto> findAllOwnerItems(Long userId, Integer from, Integer size);
+    List<ResponseItemDto> findAllOwnerItems(Long userId, Integer from, Integer size, PageCursor after);
 
     ResponseItemDto findById(Long userId, Long itemId);
 
+    String findETag(Long userId, Long itemId);
+
+    List<BookingPeriodDto> findAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to);
+
     List<ItemDto> findByText(Long userId, String text, Integer from, Integer size);
 
     ItemDto create(Long userId, ItemDto itemDto);
@@ -2,15 +2,18 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Sort;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingOverlapGuard;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.ItemBookingView;
 import ru.practicum.shareit.booking.dto.BookingForItemDto;
+import ru.practicum.shareit.booking.dto.BookingPeriodDto;
 import ru.practicum.shareit.booking.entity.Booking;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.UserNotBookerOrBookingNotFinishedException;
@@ -19,15 +22,21 @@ import ru.practicum.shareit.item.comment.*;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ResponseItemDto;
 import ru.practicum.shareit.pagination.CustomPageRequest;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserIdFilter;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.groupingBy;
@@ -49,13 +58,24 @@ public class ItemServiceImpl implements ItemService {
 
     private final ItemRequestRepository itemRequestRepository;
 
-    private final ModelMapper modelMapper;
+    private final ItemSearchEngine itemSearchEngine;
+
+    private final UserIdFilter userIdFilter;
+
+    private final BookingOverlapGuard bookingOverlapGuard;
+
+    private final ItemDtoMapper itemDtoMapper;
 
     @Override
     @Transactional(readOnly = true)
-    public List<ResponseItemDto> findAllOwnerItems(Long userId, Integer from, Integer size) {
-        Pageable pageable = CustomPageRequest.of(from, size);
-        List<Item> items = itemRepository.findByOwnerIdOrderByIdAsc(userId, pageable);
+    public List<ResponseItemDto> findAllOwnerItems(Long userId, Integer from, Integer size, PageCursor after) {
+        List<Item> items;
+        if (after == null) {
+            items = itemRepository.findByOwnerIdOrderByIdAsc(userId, CustomPageRequest.of(from, size));
+        } else {
+            items = itemRepository.findByOwnerIdAndIdGreaterThanOrderByIdAsc(userId, after.getId(),
+                    CustomPageRequest.of(0, size));
+        }
         if (!items.isEmpty()) {
             checkOwner(userId, items.get(0).getOwner().getId());
         } else {
@@ -65,23 +85,21 @@ public class ItemServiceImpl implements ItemService {
         Map<Item, List<Comment>> comments = commentRepository
                 .findByItemIn(items, Sort.by(DESC, "created")).stream()
                 .collect(groupingBy(Comment::getItem));
-        // достаем все следующие бронирования и распределяем по группам(вещам)
-        Map<Item, List<Booking>> next = bookingRepository.findNextBookingForAllOwnerItems(userId).stream()
-                .collect(groupingBy(Booking::getItem));
-        // достаем все предыдущие бронирования и распределяем по группам(вещам)
-        Map<Item, List<Booking>> last = bookingRepository.findLastBookingForAllOwnerItems(userId).stream()
-                .collect(groupingBy(Booking::getItem));
+        // достаем по одному следующему и предыдущему бронированию для каждой вещи страницы
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        Map<Long, ItemBookingView> next = bookingRepository.findNextBookingForItems(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingView::getItemId, Function.identity()));
+        Map<Long, ItemBookingView> last = bookingRepository.findLastBookingForItems(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingView::getItemId, Function.identity()));
         // собираем список из dto-объектов
         List<ResponseItemDto> output = items.stream()
                 .map(item -> {
-                    List<Booking> nextBookingList = next.getOrDefault(item, Collections.emptyList());
-                    List<Booking> lastBookingList = last.getOrDefault(item, Collections.emptyList());
-                    BookingForItemDto lastBookingDto = BookingMapper
-                            .mapToBookingForItemDto(lastBookingList.stream()
-                                    .findFirst().orElse(null));
+                    ItemBookingView lastBooking = last.get(item.getId());
+                    BookingForItemDto lastBookingDto = BookingMapper.mapToBookingForItemDto(lastBooking);
                     BookingForItemDto nextBookingDto = BookingMapper
-                            .mapToBookingForItemDto(lastBookingList.isEmpty() ? null : nextBookingList.stream()
-                                    .findFirst().orElse(null));
+                            .mapToBookingForItemDto(lastBooking == null ? null : next.get(item.getId()));
                     List<ResponseCommentDto> commentDtos = CommentMapper
                             .mapToResponseCommentDto(comments.getOrDefault(item, Collections.emptyList()));
                     return ItemMapper.mapToResponseItemDto(item,
@@ -117,6 +135,59 @@ public class ItemServiceImpl implements ItemService {
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public String findETag(Long userId, Long itemId) {
+        return itemRepository.findVersionById(itemId, userId)
+                .map(version -> {
+                    String tag = version.getVersion()
+                            + "-" + orZero(version.getCommentCount())
+                            + "-" + orZero(version.getCommentAuthorsVersion())
+                            + "-" + orZero(version.getBookingCount())
+                            + "-" + orZero(version.getBookingsVersion());
+                    if (!Objects.equals(userId, version.getOwnerId())) {
+                        return tag;
+                    }
+                    // владельцу видны последнее и следующее бронирования, они сменяются с наступлением nextStart
+                    LocalDateTime nextStart = version.getNextStart();
+                    return tag + "-" + (nextStart == null ? 0 : nextStart.toInstant(ZoneOffset.UTC).toEpochMilli());
+                })
+                .orElse(null);
+    }
+
+    // свободные периоды - промежутки между занятыми в пределах [from, to), прошедшее время не предлагается
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingPeriodDto> findAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        checkIsUserExists(userId);
+        Item item = findItem(itemId);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cursor = from.isBefore(now) ? now : from;
+        if (!item.getAvailable() || !cursor.isBefore(to)) {
+            return Collections.emptyList();
+        }
+        List<BookingPeriodDto> free = new ArrayList<>();
+        for (BookingPeriodDto reserved : bookingOverlapGuard.findReservedPeriods(itemId, cursor, to)) {
+            if (reserved.getStart().isAfter(cursor)) {
+                free.add(BookingPeriodDto.builder()
+                        .start(cursor)
+                        .end(reserved.getStart())
+                        .build());
+            }
+            if (reserved.getEnd().isAfter(cursor)) {
+                cursor = reserved.getEnd();
+            }
+        }
+        if (cursor.isBefore(to)) {
+            free.add(BookingPeriodDto.builder()
+                    .start(cursor)
+                    .end(to)
+                    .build());
+        }
+        log.info("Свободных периодов вещи с ID:{} - {}", itemId, free.size());
+        return free;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ItemDto> findByText(Long userId, String text, Integer from, Integer size) {
@@ -125,27 +196,33 @@ public class ItemServiceImpl implements ItemService {
             return Collections.emptyList();
         }
         log.info("Возвращаем список вещей, который соответствует тексту запроса: '{}'", text);
-        Pageable pageable = PageRequest.of(from > 0 ? from / size : 0, size);
-        List<Item> items = itemRepository.findByText(text, pageable);
+        List<Item> items = itemSearchEngine.findByText(text, CustomPageRequest.of(from, size));
         return items.stream()
-                .map(item -> modelMapper.map(item, ItemDto.class))
+                .map(itemDtoMapper::mapToItemDto)
                 .collect(Collectors.toList());
     }
 
     @Override
     public ItemDto create(Long userId, ItemDto itemDto) {
-        Item item = modelMapper.map(itemDto, Item.class);
+        Item item = itemDtoMapper.mapToItem(itemDto);
         item.setOwner(findUser(userId));
         if (itemDto.getRequestId() != null) {
             item.setItemRequest(findItemRequest(itemDto.getRequestId()));
         }
         log.info("Добавляем новую вещь: {}", item);
-        return modelMapper.map(itemRepository.save(item), ItemDto.class);
+        Item savedItem = itemRepository.save(item);
+        itemSearchEngine.index(savedItem);
+        return itemDtoMapper.mapToItemDto(savedItem);
     }
 
+    // частичное изменение накладывается на свежую версию вещи, поэтому его безопасно повторить
     @Override
+    @Retryable(value = OptimisticLockingFailureException.class,
+            maxAttemptsExpression = "${shareit.optimistic-lock.max-attempts:3}",
+            backoff = @Backoff(delayExpression = "${shareit.optimistic-lock.backoff-delay:20}",
+                    multiplier = 2, random = true))
     public ItemDto update(Long userId, ItemDto itemDto, Long itemId) {
-        Item item = modelMapper.map(itemDto, Item.class);
+        Item item = itemDtoMapper.mapToItem(itemDto);
         Item itemToUpdate = findItem(itemId);
         checkOwner(userId, itemToUpdate.getOwner().getId());
         if (item.getName() != null && !item.getName().isBlank()) {
@@ -160,12 +237,14 @@ public class ItemServiceImpl implements ItemService {
             log.info("Изменяем доступность вещи.");
             itemToUpdate.setAvailable(item.getAvailable());
         }
-        return modelMapper.map(itemRepository.save(itemToUpdate), ItemDto.class);
+        Item savedItem = itemRepository.save(itemToUpdate);
+        itemSearchEngine.index(savedItem);
+        return itemDtoMapper.mapToItemDto(savedItem);
     }
 
     @Override
     public ResponseCommentDto addComment(Long userId, RequestCommentDto commentDto, Long itemId) {
-        Comment comment = modelMapper.map(commentDto, Comment.class);
+        Comment comment = itemDtoMapper.mapToComment(commentDto);
         // проверить то, что пользователь брал вещь в аренду и аренда завершена
         Boolean isBookerAndFinished = bookingRepository.checkIsBookerAndFinished(userId, itemId);
         if (isBookerAndFinished) {
@@ -180,6 +259,10 @@ public class ItemServiceImpl implements ItemService {
         }
     }
 
+    private static long orZero(Long value) {
+        return value == null ? 0 : value;
+    }
+
     private void checkOwner(Long userId, Long ownerId) {
         if (!Objects.equals(userId, ownerId)) {
             log.warn("Пользователь c ID={} не является владельцем вещи!", userId);
@@ -207,7 +290,7 @@ public class ItemServiceImpl implements ItemService {
     }
 
     private void checkIsUserExists(Long userId) {
-        if (!userRepository.existsById(userId)) {
+        if (!userIdFilter.mightExist(userId) || !userRepository.existsById(userId)) {
             throw new EntityNotFoundException("Пользователь c ID:" +
                     userId + " не существует!", User.class);
         }
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item;
+
+import java.time.LocalDateTime;
+
+public interface ItemVersionView {
+    Long getVersion();
+
+    Long getOwnerId();
+
+    Long getCommentCount();
+
+    // сумма c.id * 2^20 + версия автора по отзывам: имя автора входит в отзыв
+    Long getCommentAuthorsVersion();
+
+    Long getBookingCount();
+
+    // сумма b.id * 2^20 + версия бронирования: статус бронирования входит в ответ
+    Long getBookingsVersion();
+
+    // начало ближайшего будущего бронирования: когда оно наступает, меняются lastBooking и nextBooking
+    LocalDateTime getNextStart();
+}
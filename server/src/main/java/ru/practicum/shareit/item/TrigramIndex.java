@@ -0,0 +1,264 @@
+package ru.practicum.shareit.item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс триграмм по названию и описанию доступных вещей.
+ * <p>
+ * Каждая вещь получает порядковый номер (ordinal), списки вхождений триграмм хранятся
+ * как возрастающие массивы int. При изменении вещь получает новый номер, старый помечается
+ * удаленным и отсеивается при проверке кандидатов; когда удаленных становится больше, чем живых,
+ * индекс перестраивается.
+ */
+class TrigramIndex {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_DEAD_TO_COMPACT = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, IntList> postings = new HashMap<>();
+    private Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+    private int size;
+    private int dead;
+    // вещи, измененные во время первичной загрузки: загрузчик не должен затирать их устаревшими данными
+    private Set<Long> touchedDuringLoad;
+
+    void put(long id, String name, String description, boolean available) {
+        lock.writeLock().lock();
+        try {
+            markTouched(id);
+            doRemove(id);
+            if (available) {
+                doAdd(id, normalize(name), normalize(description));
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            markTouched(id);
+            doRemove(id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void startLoading() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringLoad = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void load(long id, String name, String description, boolean available) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringLoad != null && touchedDuringLoad.contains(id)) {
+                return;
+            }
+            doRemove(id);
+            if (available) {
+                doAdd(id, normalize(name), normalize(description));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void finishLoading() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringLoad = null;
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * ID найденных вещей: сначала совпадения по названию, затем по описанию, внутри группы - по возрастанию ID.
+     */
+    List<Long> search(String text, long offset, int limit) {
+        String query = normalize(text);
+        List<Long> byName = new ArrayList<>();
+        List<Long> byDescription = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int[] candidates = findCandidates(query);
+            for (int ordinal : candidates) {
+                String name = names[ordinal];
+                if (name == null) {
+                    continue;
+                }
+                if (name.contains(query)) {
+                    byName.add(ids[ordinal]);
+                } else if (descriptions[ordinal].contains(query)) {
+                    byDescription.add(ids[ordinal]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        long total = byName.size() + byDescription.size();
+        if (offset >= total) {
+            return Collections.emptyList();
+        }
+        Collections.sort(byName);
+        Collections.sort(byDescription);
+        byName.addAll(byDescription);
+        return byName.subList((int) offset, (int) Math.min(total, offset + limit));
+    }
+
+    private int[] findCandidates(String query) {
+        if (query.length() < 3) {
+            // слишком короткий запрос для триграмм - проверяем все вещи
+            int[] all = new int[size];
+            for (int i = 0; i < size; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        List<IntList> lists = new ArrayList<>();
+        for (long trigram : trigrams(query)) {
+            IntList list = postings.get(trigram);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        int[] result = Arrays.copyOf(lists.get(0).values, lists.get(0).size);
+        int length = result.length;
+        for (int i = 1; i < lists.size() && length > 0; i++) {
+            IntList list = lists.get(i);
+            int kept = 0;
+            for (int j = 0; j < length; j++) {
+                if (Arrays.binarySearch(list.values, 0, list.size, result[j]) >= 0) {
+                    result[kept++] = result[j];
+                }
+            }
+            length = kept;
+        }
+        return Arrays.copyOf(result, length);
+    }
+
+    private void doAdd(long id, String name, String description) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+        }
+        int ordinal = size++;
+        ids[ordinal] = id;
+        names[ordinal] = name;
+        descriptions[ordinal] = description;
+        ordinals.put(id, ordinal);
+        addPostings(name, ordinal);
+        addPostings(description, ordinal);
+    }
+
+    private void doRemove(long id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal != null) {
+            names[ordinal] = null;
+            descriptions[ordinal] = null;
+            dead++;
+        }
+    }
+
+    private void addPostings(String text, int ordinal) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            IntList list = postings.computeIfAbsent(trigram(text, i), key -> new IntList());
+            // номера только растут, поэтому повтор триграммы в той же вещи - это последний элемент
+            if (list.size == 0 || list.values[list.size - 1] != ordinal) {
+                list.add(ordinal);
+            }
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (touchedDuringLoad != null || dead < MIN_DEAD_TO_COMPACT || dead < ordinals.size()) {
+            return;
+        }
+        long[] oldIds = ids;
+        String[] oldNames = names;
+        String[] oldDescriptions = descriptions;
+        int oldSize = size;
+        int capacity = Math.max(INITIAL_CAPACITY, ordinals.size() * 2);
+        postings = new HashMap<>();
+        ordinals = new HashMap<>();
+        ids = new long[capacity];
+        names = new String[capacity];
+        descriptions = new String[capacity];
+        size = 0;
+        dead = 0;
+        for (int i = 0; i < oldSize; i++) {
+            if (oldNames[i] != null) {
+                doAdd(oldIds[i], oldNames[i], oldDescriptions[i]);
+            }
+        }
+    }
+
+    private void markTouched(long id) {
+        if (touchedDuringLoad != null) {
+            touchedDuringLoad.add(id);
+        }
+    }
+
+    private static Set<Long> trigrams(String text) {
+        Set<Long> result = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            result.add(trigram(text, i));
+        }
+        return result;
+    }
+
+    private static long trigram(String text, int from) {
+        return ((long) text.charAt(from) << 32) | ((long) text.charAt(from + 1) << 16) | text.charAt(from + 2);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class TrigramItemSearchEngine implements ItemSearchEngine {
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+
+    private final TrigramIndex index = new TrigramIndex();
+
+    private volatile boolean ready;
+
+    @Override
+    public List<Item> findByText(String text, Pageable pageable) {
+        if (!ready) {
+            // индекс еще заполняется - отвечает база данных
+            return itemRepository.findByText(text, pageable);
+        }
+        List<Long> ids = index.search(text, pageable.getOffset(), pageable.getPageSize());
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Item> page = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Item item = items.get(id);
+            if (item != null) {
+                page.add(item);
+            } else {
+                // вещь удалена вместе с владельцем (ON DELETE CASCADE)
+                index.remove(id);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public void index(Item item) {
+        long id = item.getId();
+        String name = item.getName();
+        String description = item.getDescription();
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index.put(id, name, description, available);
+                }
+            });
+        } else {
+            index.put(id, name, description, available);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        index.startLoading();
+        long lastId = 0;
+        List<ItemSearchView> batch;
+        do {
+            batch = itemRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (ItemSearchView item : batch) {
+                index.load(item.getId(),
+                        item.getName(),
+                        item.getDescription(),
+                        Boolean.TRUE.equals(item.getAvailable()));
+                lastId = item.getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        index.finishLoading();
+        ready = true;
+        log.info("Поисковый индекс вещей заполнен, доступных вещей: {}", index.size());
+    }
+}
@@ -2,6 +2,8 @@ package ru.practicum.shareit.item.comment;
 
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.Item;
 
 import java.util.List;
@@ -9,5 +11,8 @@ import java.util.List;
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByItemIn(List<Item> items, Sort sort);
 
-    List<Comment> findByItemId(Long itemId);
+    // условие по внешнему ключу без соединения с items: выводимый запрос соединял бы таблицы (left join)
+    // и не мог бы воспользоваться индексом comments_item_id_id_idx
+    @Query("select c from Comment c where c.item.id = :itemId")
+    List<Comment> findByItemId(@Param("itemId") Long itemId);
 }
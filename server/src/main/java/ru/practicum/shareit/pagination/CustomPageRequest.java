@@ -3,16 +3,39 @@ package ru.practicum.shareit.pagination;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 
+/**
+ * Постраничный вывод по смещению from (в записях, а не в страницах) и размеру size.
+ */
 public class CustomPageRequest extends PageRequest {
+    private final long offset;
+
     public CustomPageRequest(int from, int size, Sort sort) {
         super(from > 0 ? from / size : 0, size, sort);
+        this.offset = Math.max(from, 0);
     }
 
     public static CustomPageRequest of(int from, int size) {
-        return of(from > 0 ? from / size : 0, size, Sort.unsorted());
+        return of(from, size, Sort.unsorted());
     }
 
     public static CustomPageRequest of(int from, int size, Sort sort) {
         return new CustomPageRequest(from, size, sort);
     }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof CustomPageRequest
+                && super.equals(obj)
+                && offset == ((CustomPageRequest) obj).offset;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Long.hashCode(offset);
+    }
 }
@@ -2,7 +2,10 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 
@@ -33,17 +36,25 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestResponseDto> findAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                        @RequestParam Integer from,
-                                                        @RequestParam Integer size) {
+    public ResponseEntity<List<ItemRequestResponseDto>> findAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                        @RequestParam Integer from,
+                                                                        @RequestParam Integer size,
+                                                                        @RequestParam(required = false) String after) {
         log.info("Поиск всех запросов на добавление вещей");
-        return itemRequestService.findAllRequests(userId, from, size);
+        List<ItemRequestResponseDto> requests = itemRequestService.findAllRequests(userId, from, size,
+                after == null ? null : PageCursor.decode(after));
+        return PageCursor.toResponse(requests, size, request -> PageCursor.of(request.getCreated(), request.getId()));
     }
 
     @GetMapping("/{requestId}")
     public ItemRequestResponseDto findRequestById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                  @PathVariable Long requestId) {
+                                                  @PathVariable Long requestId,
+                                                  WebRequest request) {
         log.info("Поиск запроса на добавление вещи под ID:{}", requestId);
+        // If-None-Match совпал с текущей версией - ответ 304 без тела
+        if (request.checkNotModified(itemRequestService.findETag(userId, requestId))) {
+            return null;
+        }
         return itemRequestService.findRequestById(userId, requestId);
     }
 }
@@ -3,12 +3,39 @@ package ru.practicum.shareit.request;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    List<ItemRequest> findAllByRequestorIdOrderByCreatedDesc(Long requestorId);
+    // условие по внешнему ключу без соединения с users, чтобы работал индекс requests_requestor_id_created_idx
+    @Query("select r from requests as r where r.requestor.id = :requestorId order by r.created desc")
+    List<ItemRequest> findAllByRequestorIdOrderByCreatedDesc(@Param("requestorId") Long requestorId);
 
-    Page<ItemRequest> findAllByRequestorIdNotOrderByCreatedDesc(Long requestorId, Pageable pageable);
+    Page<ItemRequest> findAllByRequestorIdNotOrderByCreatedDescIdDesc(Long requestorId, Pageable pageable);
+
+    // выборка по ключу (created, id): следующая страница начинается сразу после курсора
+    @Query("select r from requests as r " +
+            "where r.requestor.id <> :requestorId " +
+            "and r.created <= :#{#after.time} and (r.created < :#{#after.time} or r.id < :#{#after.id}) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findAllByRequestorIdNotAfter(@Param("requestorId") Long requestorId,
+                                                   @Param("after") PageCursor after,
+                                                   Pageable pageable);
+
+    // из этих значений строится ETag ответа findById: в ответ входит список вещей, поэтому учитываются их число,
+    // наибольший ID и сумма id * 2^20 + version по строкам - замена одной вещи другой или смена версии меняют
+    // сумму, ведь ID не повторяются, а версии только растут; пустой результат, если запроса или пользователя нет
+    @Query("select r.version as version, " +
+            "(select count(i) from Item i where i.itemRequest = r) as itemCount, " +
+            "(select max(i.id) from Item i where i.itemRequest = r) as lastItemId, " +
+            "(select sum(i.id * 1048576 + i.version) from Item i where i.itemRequest = r) as itemsVersion " +
+            "from requests as r " +
+            "where r.id = :requestId and exists (select u.id from User u where u.id = :userId)")
+    Optional<ItemRequestVersionView> findVersionById(@Param("requestId") Long requestId,
+                                                     @Param("userId") Long userId);
 }
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request;
 
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 
@@ -10,7 +11,9 @@ public interface ItemRequestService {
 
     List<ItemRequestResponseDto> findAllRequestsByRequestor(Long requestorId);
 
-    List<ItemRequestResponseDto> findAllRequests(Long userId, Integer from, Integer size);
+    List<ItemRequestResponseDto> findAllRequests(Long userId, Integer from, Integer size, PageCursor after);
 
     ItemRequestResponseDto findRequestById(Long userId, Long requestId);
+
+    String findETag(Long userId, Long requestId);
 }
@@ -2,20 +2,21 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.exception.InvalidCursorException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.dto.ItemForItemRequestDto;
 import ru.practicum.shareit.pagination.CustomPageRequest;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserIdFilter;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.util.Collections;
@@ -38,14 +39,14 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final UserRepository userRepository;
 
-    private final ModelMapper modelMapper;
+    private final UserIdFilter userIdFilter;
 
     @Override
     public ItemRequestResponseDto create(Long userId, ItemRequestDto itemRequestDto) {
         User requestor = findUser(userId);
         ItemRequest itemRequest = ItemRequestMapper.mapToItemRequest(itemRequestDto, requestor);
         ItemRequest savedItemRequest = itemRequestRepository.save(itemRequest);
-        return modelMapper.map(savedItemRequest, ItemRequestResponseDto.class);
+        return ItemRequestMapper.mapToItemRequestResponseDto(savedItemRequest, Collections.emptyList());
     }
 
     @Override
@@ -59,11 +60,18 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<ItemRequestResponseDto> findAllRequests(Long userId, Integer from, Integer size) {
+    public List<ItemRequestResponseDto> findAllRequests(Long userId, Integer from, Integer size, PageCursor after) {
         checkIsUserExists(userId);
-        Pageable pageable = CustomPageRequest.of(from, size);
-        List<ItemRequest> requests = itemRequestRepository
-                .findAllByRequestorIdNotOrderByCreatedDesc(userId, pageable).getContent();
+        List<ItemRequest> requests;
+        if (after == null) {
+            requests = itemRequestRepository
+                    .findAllByRequestorIdNotOrderByCreatedDescIdDesc(userId, CustomPageRequest.of(from, size)).getContent();
+        } else {
+            if (after.getTime() == null) {
+                throw new InvalidCursorException("Курсор запросов должен содержать время создания.");
+            }
+            requests = itemRequestRepository.findAllByRequestorIdNotAfter(userId, after, CustomPageRequest.of(0, size));
+        }
         return attachItemsToRequestAndMapToDto(requests);
     }
 
@@ -80,6 +88,17 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                 itemDtos);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public String findETag(Long userId, Long requestId) {
+        return itemRequestRepository.findVersionById(requestId, userId)
+                .map(version -> version.getVersion()
+                        + "-" + version.getItemCount()
+                        + "-" + (version.getLastItemId() == null ? 0 : version.getLastItemId())
+                        + "-" + (version.getItemsVersion() == null ? 0 : version.getItemsVersion()))
+                .orElse(null);
+    }
+
     private User findUser(Long userId) {
         return userRepository.findById(userId).orElseThrow(() ->
                 new EntityNotFoundException("Пользователь c ID:" +
@@ -87,7 +106,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     private void checkIsUserExists(Long userId) {
-        if (!userRepository.existsById(userId)) {
+        if (!userIdFilter.mightExist(userId) || !userRepository.existsById(userId)) {
             throw new EntityNotFoundException("Пользователь c ID:" +
                     userId + " не существует!", User.class);
         }
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.request;
+
+public interface ItemRequestVersionView {
+    Long getVersion();
+
+    Long getItemCount();
+
+    Long getLastItemId();
+
+    // сумма id * 2^20 + version по вещам запроса
+    Long getItemsVersion();
+}
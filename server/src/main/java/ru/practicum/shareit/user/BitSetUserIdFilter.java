@@ -0,0 +1,116 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ID пользователей выдает последовательность, и пропуски в них остаются лишь от неизрасходованных
+ * диапазонов pooled-оптимизатора, поэтому множество существующих ID хранится битовой картой.
+ * Бит ставится сразу после сохранения пользователя, а снимается только после фиксации удаления:
+ * лишний бит означает лишь проверку в базе, а недостающий - ложный отказ.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.users.id-filter", havingValue = "memory", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class BitSetUserIdFilter implements UserIdFilter {
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
+    private final UserRepository userRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final BitSet ids = new BitSet();
+
+    private volatile boolean ready;
+
+    @Override
+    public boolean mightExist(Long userId) {
+        if (!ready || userId == null || userId > Integer.MAX_VALUE) {
+            return true;
+        }
+        if (userId <= 0) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return ids.get(userId.intValue());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void add(Long userId) {
+        if (userId == null || userId <= 0 || userId > Integer.MAX_VALUE) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            ids.set(userId.intValue());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long userId) {
+        if (userId == null || userId <= 0 || userId > Integer.MAX_VALUE) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear(userId.intValue());
+                }
+            });
+        } else {
+            clear(userId.intValue());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long lastId = 0;
+        List<Long> batch;
+        do {
+            batch = userRepository.findIdsAfter(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (Long id : batch) {
+                add(id);
+                lastId = id;
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        ready = true;
+        log.info("Фильтр ID пользователей заполнен, пользователей: {}", size());
+    }
+
+    private void clear(int userId) {
+        lock.writeLock().lock();
+        try {
+            ids.clear(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return ids.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
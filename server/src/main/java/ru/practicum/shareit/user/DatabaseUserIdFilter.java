@@ -0,0 +1,23 @@
+package ru.practicum.shareit.user;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "shareit.users.id-filter", havingValue = "database")
+public class DatabaseUserIdFilter implements UserIdFilter {
+
+    @Override
+    public boolean mightExist(Long userId) {
+        // каждую проверку выполняет база данных
+        return true;
+    }
+
+    @Override
+    public void add(Long userId) {
+    }
+
+    @Override
+    public void remove(Long userId) {
+    }
+}
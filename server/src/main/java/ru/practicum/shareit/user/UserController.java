@@ -3,6 +3,7 @@ package ru.practicum.shareit.user;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,8 +22,12 @@ public class UserController {
     }
 
     @GetMapping("/{userId}")
-    public UserDto findById(@PathVariable Long userId) {
+    public UserDto findById(@PathVariable Long userId, WebRequest request) {
         log.info("Получен запрос на получение пользователя c ID:{}", userId);
+        // If-None-Match совпал с текущей версией - ответ 304 без тела
+        if (request.checkNotModified(userService.findETag(userId))) {
+            return null;
+        }
         return userService.findById(userId);
     }
 
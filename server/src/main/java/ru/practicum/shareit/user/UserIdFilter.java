@@ -0,0 +1,18 @@
+package ru.practicum.shareit.user;
+
+public interface UserIdFilter {
+    /**
+     * false - пользователя с таким ID точно нет, true - возможно есть, нужна проверка в базе.
+     */
+    boolean mightExist(Long userId);
+
+    /**
+     * Сообщить фильтру о новом пользователе.
+     */
+    void add(Long userId);
+
+    /**
+     * Сообщить фильтру об удалении пользователя.
+     */
+    void remove(Long userId);
+}
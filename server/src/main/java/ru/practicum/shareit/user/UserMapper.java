@@ -0,0 +1,12 @@
+package ru.practicum.shareit.user;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface UserMapper {
+    UserDto mapToUserDto(User user);
+
+    @Mapping(target = "version", ignore = true)
+    User mapToUser(UserDto userDto);
+}
@@ -1,6 +1,26 @@
 package ru.practicum.shareit.user;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    // проверка существования идет через findById: ответ берется из кэша второго уровня,
+    // а запрос count из реализации по умолчанию всегда обращается к базе
+    @Override
+    default boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    @Query("select u.version from User u where u.id = :userId")
+    Optional<Long> findVersionById(@Param("userId") Long userId);
+
+    // выборка по ключу для первичного заполнения фильтра ID
+    @Query("select u.id from User u where u.id > :afterId order by u.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
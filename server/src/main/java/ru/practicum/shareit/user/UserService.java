@@ -7,6 +7,8 @@ public interface UserService {
 
     UserDto findById(Long userId);
 
+    String findETag(Long userId);
+
     UserDto create(UserDto userDto);
 
     UserDto update(UserDto userDto, Long userId);
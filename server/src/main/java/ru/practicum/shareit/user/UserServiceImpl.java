@@ -2,13 +2,17 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingOverlapGuard;
+import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.item.ItemRepository;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Transactional
@@ -18,22 +22,28 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository repository;
-    private final ModelMapper modelMapper;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingOverlapGuard bookingOverlapGuard;
+    private final UserIdFilter userIdFilter;
+    private final UserMapper userMapper;
 
     @Override
     @Transactional(readOnly = true)
     public List<UserDto> findAll() {
         log.info("Получаем список всех пользователей.");
         return repository.findAll().stream()
-                .map(user -> modelMapper.map(user, UserDto.class))
+                .map(userMapper::mapToUserDto)
                 .collect(Collectors.toList());
     }
 
     @Override
     public UserDto create(UserDto userDto) {
-        User user = modelMapper.map(userDto, User.class);
+        User user = userMapper.mapToUser(userDto);
         log.info("Добавляем следующего пользователя: {}", user);
-        return modelMapper.map(repository.save(user), UserDto.class);
+        User savedUser = repository.save(user);
+        userIdFilter.add(savedUser.getId());
+        return userMapper.mapToUserDto(savedUser);
     }
 
     @Override
@@ -49,7 +59,7 @@ public class UserServiceImpl implements UserService {
             userToUpdate.setName(userDto.getName());
         }
         log.info("Обновляем следующего пользователя: {}", userToUpdate);
-        return modelMapper.map(repository.save(userToUpdate), UserDto.class);
+        return userMapper.mapToUserDto(repository.save(userToUpdate));
     }
 
     @Override
@@ -57,14 +67,31 @@ public class UserServiceImpl implements UserService {
     public UserDto findById(Long userId) {
         log.info("Получаем пользователя с ID:{}", userId);
         User user = findUser(userId);
-        return modelMapper.map(user, UserDto.class);
+        return userMapper.mapToUserDto(user);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String findETag(Long userId) {
+        return repository.findVersionById(userId)
+                .map(String::valueOf)
+                .orElse(null);
     }
 
     @Override
     public void delete(Long userId) {
         User userTodelete = findUser(userId);
         log.info("Удаляем пользователя под ID: {}", userId);
+        // бронирования пользователя и бронирования его вещей удаляются каскадом в базе,
+        // поэтому занятые ими интервалы забываются явно
+        Set<Long> reservedItemIds = new HashSet<>(itemRepository.findIdsByOwnerId(userId));
+        reservedItemIds.addAll(bookingRepository.findReservedItemIdsByBookerId(userId,
+                BookingOverlapGuard.RESERVING_STATUSES));
+        bookingOverlapGuard.evict(reservedItemIds);
+        // вещи удаляются явно, а не каскадом в базе: так Hibernate сбрасывает их из кэша второго уровня
+        itemRepository.deleteAllByOwnerId(userId);
         repository.delete(userTodelete);
+        userIdFilter.remove(userId);
     }
 
     private User findUser(Long userId) {
@@ -1,7 +1,8 @@
 CREATE TABLE IF NOT EXISTS users (
         id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY NOT NULL,
         user_name varchar(100) NOT NULL,
-        email varchar(320) NOT NULL UNIQUE
+        email varchar(320) NOT NULL UNIQUE,
+        version BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS items (
@@ -11,6 +12,7 @@ CREATE TABLE IF NOT EXISTS items (
         available boolean NOT NULL,
         user_id BIGINT NOT NULL,
         request_id BIGINT,
+        version BIGINT NOT NULL DEFAULT 0,
         CONSTRAINT fk_items_to_users FOREIGN KEY(user_id) REFERENCES users(id)
         ON DELETE CASCADE ON UPDATE CASCADE
 );
@@ -22,10 +24,13 @@ CREATE TABLE IF NOT EXISTS bookings (
         item_id BIGINT NOT NULL,
         user_id BIGINT NOT NULL,
         status varchar(30) NOT NULL,
+        version BIGINT NOT NULL DEFAULT 0,
         CONSTRAINT fk_bookings_to_items FOREIGN KEY(item_id) REFERENCES items(id),
         CONSTRAINT fk_bookings_to_users FOREIGN KEY(user_id) REFERENCES users(id)
 );
 
+CREATE INDEX IF NOT EXISTS bookings_item_id_start_time_idx ON bookings(item_id, start_time);
+
 CREATE TABLE IF NOT EXISTS comments (
         id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY NOT NULL,
         text varchar(255) NOT NULL,
@@ -41,5 +46,6 @@ CREATE TABLE IF NOT EXISTS requests (
         description varchar(255) NOT NULL,
         requestor_id BIGINT NOT NULL,
         created timestamp WITHOUT TIME ZONE NOT NULL,
+        version BIGINT NOT NULL DEFAULT 0,
         CONSTRAINT fk_requests_to_users FOREIGN KEY(requestor_id) REFERENCES users(id)
 );
@@ -0,0 +1,21 @@
+-- вещи владельца по порядку ID: findByOwnerIdOrderByIdAsc и выборка по ключу после afterId,
+-- а также соединение с вещами в запросах бронирований владельца
+CREATE INDEX IF NOT EXISTS items_user_id_id_idx ON items(user_id, id);
+
+-- вещи, созданные в ответ на запросы
+CREATE INDEX IF NOT EXISTS items_request_id_id_idx ON items(request_id, id);
+
+-- бронирования арендатора в порядке (start_time desc, id desc) и курсор по тому же ключу
+CREATE INDEX IF NOT EXISTS bookings_user_id_start_time_id_idx ON bookings(user_id, start_time, id);
+
+-- бронирования, идущие или закончившиеся к заданному моменту
+CREATE INDEX IF NOT EXISTS bookings_start_time_end_time_idx ON bookings(start_time, end_time);
+
+-- отзывы о вещи
+CREATE INDEX IF NOT EXISTS comments_item_id_id_idx ON comments(item_id, id);
+
+-- собственные запросы пользователя в порядке создания
+CREATE INDEX IF NOT EXISTS requests_requestor_id_created_idx ON requests(requestor_id, created);
+
+-- чужие запросы постранично по ключу (created desc, id desc)
+CREATE INDEX IF NOT EXISTS requests_created_id_idx ON requests(created, id);
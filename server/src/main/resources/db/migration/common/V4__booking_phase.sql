@@ -0,0 +1,19 @@
+-- фаза бронирования относительно текущего момента (FUTURE, CURRENT, PAST), ее продвигает BookingPhaseUpdater;
+-- условие "идет сейчас" (start_time <= now <= end_time) не сужается одним B-деревом по времени,
+-- а идущих бронирований у пользователя или вещи немного, и по фазе они выбираются диапазоном индекса
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS phase varchar(10) NOT NULL DEFAULT 'FUTURE';
+
+UPDATE bookings
+SET phase = CASE
+        WHEN end_time < CURRENT_TIMESTAMP THEN 'PAST'
+        WHEN start_time <= CURRENT_TIMESTAMP THEN 'CURRENT'
+        ELSE 'FUTURE'
+    END;
+
+-- текущие бронирования арендатора и вещей владельца
+CREATE INDEX IF NOT EXISTS bookings_user_id_phase_start_time_idx ON bookings(user_id, phase, start_time, id);
+CREATE INDEX IF NOT EXISTS bookings_item_id_phase_start_time_idx ON bookings(item_id, phase, start_time, id);
+
+-- переходы фаз: наступившие и закончившиеся бронирования
+CREATE INDEX IF NOT EXISTS bookings_phase_start_time_idx ON bookings(phase, start_time);
+CREATE INDEX IF NOT EXISTS bookings_phase_end_time_idx ON bookings(phase, end_time);
@@ -0,0 +1,3 @@
+-- очередь истечения ожидающих бронирований: BookingExpiryScheduler выбирает наступившие по диапазону
+-- (status = 'WAITING', start_time <= now) в порядке (start_time, id), не просматривая таблицу
+CREATE INDEX IF NOT EXISTS bookings_status_start_time_id_idx ON bookings(status, start_time, id);
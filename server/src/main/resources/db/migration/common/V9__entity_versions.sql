@@ -0,0 +1,9 @@
+-- версии строк для оптимистичной блокировки и ETag. Базы, созданные до перехода на миграции, принимаются
+-- за версию 1 без этих столбцов и получают их здесь; на базах, созданных с V1, миграция ничего не меняет
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE requests ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- последнее и следующее бронирование вещи
+CREATE INDEX IF NOT EXISTS bookings_item_id_start_time_idx ON bookings(item_id, start_time);
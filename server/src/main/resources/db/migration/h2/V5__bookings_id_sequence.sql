@@ -0,0 +1,11 @@
+-- ID бронирований выдает последовательность с шагом 50: Hibernate (оптимизатор pooled) резервирует
+-- по одному значению на 50 вставок и может отправлять их пакетами, что невозможно с IDENTITY
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE IF NOT EXISTS bookings_seq INCREMENT BY 50;
+
+-- первое значение закрывает диапазон ID, следующий за уже существующими
+ALTER SEQUENCE bookings_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM bookings);
+
+-- вставки в обход Hibernate берут верхнюю границу своего диапазона и с ним не пересекаются
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT NEXT VALUE FOR bookings_seq;
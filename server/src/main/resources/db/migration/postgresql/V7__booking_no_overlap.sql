@@ -0,0 +1,26 @@
+-- ожидающие и подтвержденные бронирования одной вещи не пересекаются по времени [start_time, end_time);
+-- btree_gist нужен для сравнения item_id на равенство в GiST-индексе ограничения
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- до этой миграции пересечения ничем не запрещались, и без их разбора ограничение не создастся.
+-- Из пересекающихся бронирований вещь остается за более приоритетным: подтвержденное важнее ожидающего,
+-- при равном статусе - раньше начавшееся (затем с меньшим ID). Остальные переводятся в REJECTED,
+-- в том числе подтвержденные: владелец одобрил двойную аренду, и выполнить ее все равно нельзя.
+-- Сравниваются пары, поэтому бронирование отклоняется и тогда, когда мешавшее ему само отклонено
+-- из-за третьего, - отклоненных может оказаться больше необходимого, но пересечений не остается.
+UPDATE bookings AS b
+SET status = 'REJECTED'
+WHERE b.status IN ('WAITING', 'APPROVED')
+  AND EXISTS (SELECT 1
+              FROM bookings AS o
+              WHERE o.item_id = b.item_id
+                AND o.id <> b.id
+                AND o.status IN ('WAITING', 'APPROVED')
+                AND o.start_time < b.end_time
+                AND b.start_time < o.end_time
+                AND ((o.status = 'APPROVED' AND b.status = 'WAITING')
+                    OR (o.status = b.status AND (o.start_time, o.id) < (b.start_time, b.id))));
+
+ALTER TABLE bookings ADD CONSTRAINT bookings_no_overlap
+    EXCLUDE USING gist (item_id WITH =, tsrange(start_time, end_time) WITH &&)
+    WHERE (status IN ('WAITING', 'APPROVED'));
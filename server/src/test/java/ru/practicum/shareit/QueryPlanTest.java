@@ -0,0 +1,233 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.BookingFilter;
+import ru.practicum.shareit.booking.BookingParty;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Планы запросов репозиториев на заполненной базе: ни один запрос не должен просматривать таблицу целиком.
+ * SQL берется у Hibernate, поэтому проверяется ровно то, что уходит в базу.
+ * Не проверяются поиск по тексту (на H2 ilike без pg_trgm) и постраничный вывод чужих запросов по смещению:
+ * условие requestor_id <> ? выбирает почти всю таблицу, и полный просмотр для него - верный план.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.QueryPlanTest$SqlRecorder")
+class QueryPlanTest {
+    private static final int USERS = 50;
+    private static final int ITEMS_PER_USER = 4;
+    private static final int BOOKINGS_PER_ITEM = 5;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    private long userId;
+    private long itemId;
+    private long otherItemId;
+    private long requestId;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new Object[]{"Пользователь " + i, "user" + i + "@mail.com"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (user_name, email) values (?, ?)", users);
+        // ID из последовательности с шагом 50 идут не подряд, поэтому связи строятся по выбранным ID
+        List<Long> userIds = ids("users");
+        userId = userIds.get(1);
+
+        List<Object[]> requests = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            requests.add(new Object[]{"Запрос " + i, userIds.get(i), now.minusDays(i)});
+        }
+        jdbcTemplate.batchUpdate("insert into requests (description, requestor_id, created) values (?, ?, ?)",
+                requests);
+        List<Long> requestIds = ids("requests");
+        requestId = requestIds.get(0);
+
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 0; i < USERS * ITEMS_PER_USER; i++) {
+            items.add(new Object[]{"Вещь " + i, "Описание " + i, userIds.get(i % USERS),
+                    i % 10 == 0 ? requestIds.get(i % USERS) : null});
+        }
+        jdbcTemplate.batchUpdate("insert into items (item_name, description, available, user_id, request_id) " +
+                "values (?, ?, true, ?, ?)", items);
+        List<Long> itemIds = ids("items");
+        itemId = itemIds.get(1);
+        otherItemId = itemIds.get(2);
+
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        for (int i = 0; i < USERS * ITEMS_PER_USER; i++) {
+            for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                LocalDateTime start = now.plusDays(j * 2L - BOOKINGS_PER_ITEM);
+                bookings.add(new Object[]{start, start.plusDays(1), itemIds.get(i),
+                        userIds.get((i + j + 1) % USERS), "APPROVED"});
+            }
+            comments.add(new Object[]{"Отзыв " + i, itemIds.get(i), userIds.get((i + 1) % USERS), now});
+        }
+        jdbcTemplate.batchUpdate("insert into bookings (start_time, end_time, item_id, user_id, status) " +
+                "values (?, ?, ?, ?, ?)", bookings);
+        jdbcTemplate.batchUpdate("insert into comments (text, item_id, author_id, created_time) " +
+                "values (?, ?, ?, ?)", comments);
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @Test
+    void bookingQueries_whenDatasetSeeded_thenNoTableScans() {
+        PageCursor first = PageCursor.of(LocalDateTime.now().plusYears(100), Long.MAX_VALUE);
+        PageRequest page = PageRequest.of(0, 10);
+
+        for (BookingParty party : BookingParty.values()) {
+            for (BookingState state : BookingState.values()) {
+                BookingFilter filter = BookingFilter.builder()
+                        .party(party)
+                        .userId(userId)
+                        .state(state)
+                        .after(first)
+                        .build();
+                assertIndexed(() -> bookingRepository.findBookings(filter, page));
+            }
+        }
+        assertIndexed(() -> bookingRepository.findLastBookingForItem(itemId));
+        assertIndexed(() -> bookingRepository.findNextBookingForItem(itemId));
+        assertIndexed(() -> bookingRepository.findLastBookingForItems(List.of(itemId, otherItemId)));
+        assertIndexed(() -> bookingRepository.findNextBookingForItems(List.of(itemId, otherItemId)));
+        assertIndexed(() -> bookingRepository.checkIsBookerAndFinished(userId, itemId));
+        assertIndexed(() -> bookingRepository.findOwnedBookings(List.of(1L, 2L, 3L), userId));
+        assertIndexed(() -> bookingRepository.findDueBookings(BookingStatus.WAITING, LocalDateTime.now(),
+                PageRequest.of(0, 500)));
+        assertIndexed(() -> bookingRepository.countDueBookings(BookingStatus.WAITING, LocalDateTime.now()));
+        assertIndexed(() -> bookingRepository.findActiveBookingsForItem(itemId,
+                List.of(BookingStatus.WAITING, BookingStatus.APPROVED)));
+        assertIndexed(() -> bookingRepository.findReservedItemIdsByBookerId(userId,
+                List.of(BookingStatus.WAITING, BookingStatus.APPROVED)));
+        assertIndexed(() -> bookingRepository.findBookingsForItemBetween(itemId,
+                List.of(BookingStatus.WAITING, BookingStatus.APPROVED), LocalDateTime.now(),
+                LocalDateTime.now().plusDays(30)));
+        assertIndexed(() -> bookingRepository.updatePhaseFinished(List.of(BookingPhase.FUTURE, BookingPhase.CURRENT),
+                BookingPhase.PAST));
+        assertIndexed(() -> bookingRepository.updatePhaseStarted(BookingPhase.FUTURE, BookingPhase.CURRENT));
+        List<Long> bookingIds = ids("bookings");
+        assertIndexed(() -> bookingRepository.updateWaitingStatuses(Map.of(bookingIds.get(0), BookingStatus.APPROVED,
+                bookingIds.get(1), BookingStatus.REJECTED)));
+    }
+
+    @Test
+    void findBookings_whenDifferentUsersAndCursors_thenSameSqlWithoutLiteralIds() {
+        List<String> statements = new ArrayList<>();
+        for (long user : List.of(userId, userId + 1)) {
+            BookingFilter filter = BookingFilter.builder()
+                    .party(BookingParty.OWNER)
+                    .userId(user)
+                    .state(BookingState.ALL)
+                    .itemId(itemId)
+                    .after(PageCursor.of(LocalDateTime.now(), user * 7))
+                    .build();
+            SqlRecorder.STATEMENTS.clear();
+            bookingRepository.findBookings(filter, PageRequest.of(0, 10));
+            statements.addAll(SqlRecorder.STATEMENTS);
+        }
+
+        assertEquals(2, statements.size());
+        assertEquals(statements.get(0), statements.get(1));
+        assertFalse(Pattern.compile("[=<>]\\s*\\d").matcher(statements.get(0)).find(),
+                "Значения фильтра подставлены в SQL литералами:\n" + statements.get(0));
+    }
+
+    @Test
+    void itemQueries_whenDatasetSeeded_thenNoTableScans() {
+        ItemRequest request = entityManager.getReference(ItemRequest.class, requestId);
+
+        assertIndexed(() -> itemRepository.findByOwnerIdOrderByIdAsc(userId, PageRequest.of(0, 10)));
+        assertIndexed(() -> itemRepository.findByOwnerIdAndIdGreaterThanOrderByIdAsc(userId, itemId,
+                PageRequest.of(0, 10)));
+        assertIndexed(() -> itemRepository.findByItemRequest(request, Sort.by("id")));
+        assertIndexed(() -> itemRepository.findByItemRequestIn(List.of(request), Sort.by("id")));
+        assertIndexed(() -> itemRepository.findVersionById(itemId, userId));
+        assertIndexed(() -> itemRepository.findIdsByOwnerId(userId));
+        assertIndexed(() -> commentRepository.findByItemId(itemId));
+    }
+
+    @Test
+    void requestQueries_whenDatasetSeeded_thenNoTableScans() {
+        PageCursor first = PageCursor.of(LocalDateTime.now().plusYears(100), Long.MAX_VALUE);
+
+        assertIndexed(() -> itemRequestRepository.findAllByRequestorIdOrderByCreatedDesc(userId));
+        assertIndexed(() -> itemRequestRepository.findAllByRequestorIdNotAfter(userId, first,
+                PageRequest.of(0, 10)));
+        assertIndexed(() -> itemRequestRepository.findVersionById(requestId, userId));
+    }
+
+    private List<Long> ids(String table) {
+        return jdbcTemplate.queryForList("select id from " + table + " order by id", Long.class);
+    }
+
+    private void assertIndexed(Runnable query) {
+        SqlRecorder.STATEMENTS.clear();
+        query.run();
+        for (String sql : new ArrayList<>(SqlRecorder.STATEMENTS)) {
+            String plan = explain(sql);
+            assertFalse(plan.contains(".tableScan"), "Запрос просматривает таблицу целиком:\n" + plan);
+        }
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute("explain " + sql, (PreparedStatement statement) -> {
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        });
+    }
+
+    public static class SqlRecorder implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
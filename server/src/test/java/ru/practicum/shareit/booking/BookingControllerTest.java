@@ -11,6 +11,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.ResponseBookingDto;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -100,6 +103,25 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.status", is(responseBookingDto.getStatus().toString())));
     }
 
+    @Test
+    void createAll() throws Exception {
+        when(bookingService.createAll(1L, List.of(bookingDto, bookingDto)))
+                .thenReturn(List.of(
+                        BookingBatchResultDto.builder().booking(responseBookingDto).build(),
+                        BookingBatchResultDto.builder().error("Вещь с ID: 1 недоступна для бронирования.").build()));
+
+        mvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(mapper.writeValueAsString(List.of(bookingDto, bookingDto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].booking.id", is(responseBookingDto.getId()), Long.class))
+                .andExpect(jsonPath("$[1].error", is("Вещь с ID: 1 недоступна для бронирования.")));
+    }
+
     @Test
     void changeStatus() throws Exception {
         responseBookingDto.setStatus(BookingStatus.APPROVED);
@@ -122,6 +144,30 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.status", is(responseBookingDto.getStatus().toString())));
     }
 
+    @Test
+    void changeStatuses() throws Exception {
+        List<BookingDecisionDto> decisions = List.of(
+                BookingDecisionDto.builder().bookingId(1L).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(2L).approved(false).build());
+        when(bookingService.changeStatuses(1L, decisions))
+                .thenReturn(List.of(
+                        BookingDecisionResultDto.builder().bookingId(1L).status(BookingStatus.APPROVED).build(),
+                        BookingDecisionResultDto.builder().bookingId(2L).error("Переданный статус уже установлен.")
+                                .build()));
+
+        mvc.perform(patch("/bookings/owner/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(mapper.writeValueAsString(decisions))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status", is("APPROVED")))
+                .andExpect(jsonPath("$[1].bookingId", is(2L), Long.class))
+                .andExpect(jsonPath("$[1].error", is("Переданный статус уже установлен.")));
+    }
+
     @Test
     void findBookingInfo() throws Exception {
         when(bookingService.findBookingInfo(anyLong(), anyLong()))
@@ -145,7 +191,7 @@ class BookingControllerTest {
 
     @Test
     void findAllBookingByUserId() throws Exception {
-        when(bookingService.findAllBookingByUserId(1L, BookingState.ALL, 0, 10))
+        when(bookingService.findAllBookingByUserId(1L, BookingState.ALL, 0, 10, null))
                 .thenReturn(List.of(responseBookingDto));
 
         mvc.perform(get("/bookings?state=ALL&from=0&size=10")
@@ -165,7 +211,7 @@ class BookingControllerTest {
 
     @Test
     void findAllBookingByOwnerItems() throws Exception {
-        when(bookingService.findAllBookingByOwnerItems(1L, BookingState.ALL, 0, 10))
+        when(bookingService.findAllBookingByOwnerItems(1L, BookingState.ALL, 0, 10, null))
                 .thenReturn(List.of(responseBookingDto));
 
         mvc.perform(get("/bookings/owner?state=ALL&from=0&size=10")
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+
+class BookingExpirySchedulerTest {
+    private static final LocalDateTime START = LocalDateTime.now().minusHours(2).withNano(0);
+
+    private final BookingRepository mockBookingRepository = Mockito.mock(BookingRepository.class);
+    private final BookingOverlapGuard mockBookingOverlapGuard = Mockito.mock(BookingOverlapGuard.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    @Test
+    void expire_whenQueueDrained_thenExpiredBookingsReleasedAndBacklogZero() {
+        BookingExpiryScheduler scheduler = scheduler(2, 10);
+        Mockito
+                .when(mockBookingRepository.findDueBookings(eq(BookingStatus.WAITING), any(), any(Pageable.class)))
+                .thenReturn(List.of(view(1L, START), view(2L, START.plusMinutes(1))))
+                .thenReturn(List.of(view(3L, START.plusMinutes(2))));
+        Mockito
+                .when(mockBookingRepository.updateWaitingStatuses(Map.of(1L, BookingStatus.EXPIRED,
+                        2L, BookingStatus.EXPIRED)))
+                .thenReturn(Set.of(1L)); // второе бронирование владелец успел одобрить
+        Mockito
+                .when(mockBookingRepository.updateWaitingStatuses(Map.of(3L, BookingStatus.EXPIRED)))
+                .thenReturn(Set.of(3L));
+
+        scheduler.expire();
+
+        Mockito.verify(mockBookingOverlapGuard).release(1L, START, START.plusDays(1));
+        Mockito.verify(mockBookingOverlapGuard).release(3L, START.plusMinutes(2), START.plusMinutes(2).plusDays(1));
+        Mockito.verifyNoMoreInteractions(mockBookingOverlapGuard);
+        Mockito.verify(mockBookingRepository, Mockito.never()).countDueBookings(any(), any());
+        Assertions.assertEquals(2, meterRegistry.get("shareit.bookings.expired").counter().count());
+        Assertions.assertEquals(0, meterRegistry.get("shareit.bookings.expiry.backlog").gauge().value());
+        Assertions.assertTrue(meterRegistry.get("shareit.bookings.expiry.lag").gauge().value() >= 2 * 60 * 60);
+    }
+
+    @Test
+    void expire_whenBatchLimitReached_thenRestLeftForNextRunAndCounted() {
+        BookingExpiryScheduler scheduler = scheduler(1, 2);
+        Mockito
+                .when(mockBookingRepository.findDueBookings(eq(BookingStatus.WAITING), any(), any(Pageable.class)))
+                .thenReturn(List.of(view(1L, START)))
+                .thenReturn(List.of(view(2L, START)));
+        Mockito
+                .when(mockBookingRepository.updateWaitingStatuses(any()))
+                .thenAnswer(invocation -> invocation.<Map<Long, BookingStatus>>getArgument(0).keySet());
+        Mockito
+                .when(mockBookingRepository.countDueBookings(eq(BookingStatus.WAITING), any()))
+                .thenReturn(5L);
+
+        scheduler.expire();
+
+        Mockito.verify(mockBookingRepository, Mockito.times(2))
+                .findDueBookings(eq(BookingStatus.WAITING), any(), any(Pageable.class));
+        Mockito.verify(mockBookingOverlapGuard, Mockito.times(2)).release(anyLong(), any(), any());
+        Assertions.assertEquals(5, meterRegistry.get("shareit.bookings.expiry.backlog").gauge().value());
+    }
+
+    @Test
+    void expire_whenQueueEmpty_thenNothingUpdatedAndLagZero() {
+        BookingExpiryScheduler scheduler = scheduler(2, 10);
+        Mockito
+                .when(mockBookingRepository.findDueBookings(eq(BookingStatus.WAITING), any(), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        scheduler.expire();
+
+        Mockito.verify(mockBookingRepository, Mockito.never()).updateWaitingStatuses(any());
+        Assertions.assertEquals(0, meterRegistry.get("shareit.bookings.expiry.lag").gauge().value());
+    }
+
+    private BookingExpiryScheduler scheduler(int batchSize, int maxBatches) {
+        return new BookingExpiryScheduler(mockBookingRepository, mockBookingOverlapGuard,
+                Mockito.mock(PlatformTransactionManager.class), meterRegistry, batchSize, maxBatches);
+    }
+
+    private BookingDecisionView view(Long id, LocalDateTime start) {
+        return projectionFactory.createProjection(BookingDecisionView.class, Map.of("id", id,
+                "status", BookingStatus.WAITING, "itemId", id, "start", start, "end", start.plusDays(1)));
+    }
+}
@@ -1,15 +1,20 @@
 package ru.practicum.shareit.booking;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.dto.ResponseBookingDto;
 import ru.practicum.shareit.booking.entity.Booking;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
@@ -17,11 +22,15 @@ import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.data.domain.Sort.Direction.DESC;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class BookingRepositoryTest {
     @Autowired
     private BookingRepository bookingRepository;
@@ -31,6 +40,8 @@ class BookingRepositoryTest {
     private UserRepository userRepository;
     @Autowired
     private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private TestEntityManager entityManager;
     private Booking waitingBooking;
     private Booking rejectedBooking;
     private Booking currentBooking;
@@ -70,7 +81,7 @@ class BookingRepositoryTest {
         currentBooking = Booking.builder()
                 .item(item)
                 .booker(user)
-                .end(LocalDateTime.of(2024, 6, 30, 12, 23))
+                .end(LocalDateTime.of(2124, 6, 30, 12, 23))
                 .start(LocalDateTime.of(2023, 6, 23, 12, 23))
                 .status(BookingStatus.APPROVED)
                 .build();
@@ -90,8 +101,8 @@ class BookingRepositoryTest {
         futureBooking = Booking.builder()
                 .item(item)
                 .booker(user)
-                .end(LocalDateTime.of(2024, 6, 30, 12, 23))
-                .start(LocalDateTime.of(2024, 6, 29, 12, 23))
+                .end(LocalDateTime.of(2124, 6, 30, 12, 23))
+                .start(LocalDateTime.of(2124, 6, 29, 12, 23))
                 .status(BookingStatus.WAITING)
                 .build();
 
@@ -101,36 +112,154 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findByBookerId_whenInvoked_then_ResponseContainsListWithBooking() {
-        List<Booking> bookingList = bookingRepository.findByBookerId(user.getId(), pageable);
+    void findBookings_whenBookerAll_then_ResponseContainsListWithBooking() {
+        List<ResponseBookingDto> bookingList = bookingRepository.findBookings(filter(BookingParty.BOOKER, BookingState.ALL), pageable);
 
         assertEquals(3, bookingList.size());
         assertEquals("Походный рюкзак", bookingList.get(0).getItem().getDescription());
         assertEquals("Сергей", bookingList.get(0).getBooker().getName());
-        assertEquals(LocalDateTime.of(2024, 6, 29, 12, 23),
+        assertEquals(LocalDateTime.of(2124, 6, 29, 12, 23),
                 bookingList.get(0).getStart());
-        assertEquals(LocalDateTime.of(2024, 6, 30, 12, 23),
+        assertEquals(LocalDateTime.of(2124, 6, 30, 12, 23),
                 bookingList.get(0).getEnd());
         assertEquals(BookingStatus.WAITING, bookingList.get(0).getStatus());
     }
 
     @Test
-    void findCurrentBookingByUserId_whenInvoked_then_ResponseContainsListWithBooking() {
-        List<Booking> bookingList = bookingRepository.findCurrentBookingByUserId(user.getId(), pageable);
+    void findBookings_whenBookerAllAfterCursor_then_ResponseContainsBookingsAfterCursorOnly() {
+        PageCursor after = PageCursor.of(futureBooking.getStart(), futureBooking.getId());
+
+        BookingFilter filter = BookingFilter.builder()
+                .party(BookingParty.BOOKER)
+                .userId(user.getId())
+                .after(after)
+                .build();
+
+        List<ResponseBookingDto> bookingList = bookingRepository.findBookings(filter, PageRequest.of(0, 1));
+
+        assertEquals(1, bookingList.size());
+        assertEquals(currentBooking.getId(), bookingList.get(0).getId());
+    }
+
+    @Test
+    void findBookings_whenBookerOrOwner_thenSingleStatementPerPage() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ResponseBookingDto> byBooker = bookingRepository.findBookings(
+                filter(BookingParty.BOOKER, BookingState.ALL), pageable);
+
+        assertEquals(3, byBooker.size());
+        assertEquals("Походный рюкзак", byBooker.get(0).getItem().getDescription());
+        assertEquals(itemRequest.getId(), byBooker.get(0).getItem().getRequestId());
+        assertEquals("Сергей", byBooker.get(0).getBooker().getName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        entityManager.clear();
+        statistics.clear();
+        List<ResponseBookingDto> byOwner = bookingRepository.findBookings(
+                filter(BookingParty.OWNER, BookingState.ALL), pageable);
+
+        assertEquals(3, byOwner.size());
+        assertEquals("Сергей", byOwner.get(0).getBooker().getName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void saveAll_whenSeveralBookings_thenInsertedInOneBatch() {
+        entityManager.flush();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<Booking> bookings = IntStream.range(0, 5)
+                .mapToObj(day -> Booking.builder()
+                        .item(item)
+                        .booker(user)
+                        .start(LocalDateTime.of(2124, 7, 1 + day, 12, 0))
+                        .end(LocalDateTime.of(2124, 7, 2 + day, 12, 0))
+                        .build())
+                .collect(Collectors.toList());
+
+        bookingRepository.saveAll(bookings);
+        entityManager.flush();
+
+        assertTrue(bookings.stream().allMatch(booking -> booking.getId() != null));
+        assertEquals(5, statistics.getEntityInsertCount());
+        // один пакет вставок и, если диапазон ID исчерпан, одно обращение к последовательности
+        assertTrue(statistics.getPrepareStatementCount() <= 2);
+    }
+
+    @Test
+    void updateWaitingStatuses_whenSomeNotWaiting_thenOnlyWaitingUpdatedWithNewVersion() {
+        entityManager.flush();
+        long version = futureBooking.getVersion();
+
+        Set<Long> updated = bookingRepository.updateWaitingStatuses(Map.of(
+                futureBooking.getId(), BookingStatus.APPROVED,
+                pastBooking.getId(), BookingStatus.APPROVED));
+        entityManager.clear();
+
+        assertEquals(Set.of(futureBooking.getId()), updated);
+        Booking approved = bookingRepository.findById(futureBooking.getId()).orElseThrow();
+        assertEquals(BookingStatus.APPROVED, approved.getStatus());
+        assertEquals(version + 1, approved.getVersion());
+        assertEquals(BookingStatus.REJECTED,
+                bookingRepository.findById(pastBooking.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void findDueBookings_whenWaitingStarted_thenOnlyStartedWaitingInStartOrder() {
+        Booking startedWaiting = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(user)
+                .start(LocalDateTime.of(2023, 6, 24, 12, 23))
+                .end(LocalDateTime.of(2023, 6, 25, 12, 23))
+                .status(BookingStatus.WAITING)
+                .build());
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        List<BookingDecisionView> due = bookingRepository.findDueBookings(BookingStatus.WAITING, now,
+                PageRequest.of(0, 10));
+
+        assertEquals(List.of(startedWaiting.getId()),
+                due.stream().map(BookingDecisionView::getId).collect(Collectors.toList()));
+        assertEquals(item.getId(), due.get(0).getItemId());
+        assertEquals(1, bookingRepository.countDueBookings(BookingStatus.WAITING, now));
+        assertEquals(2, bookingRepository.countDueBookings(BookingStatus.WAITING,
+                futureBooking.getStart()));
+    }
+
+    @Test
+    void findOwnedBookings_whenNotOwner_thenEmpty() {
+        List<BookingDecisionView> owned = bookingRepository.findOwnedBookings(
+                List.of(futureBooking.getId(), pastBooking.getId()), user.getId());
+
+        assertEquals(Set.of(futureBooking.getId(), pastBooking.getId()),
+                owned.stream().map(BookingDecisionView::getId).collect(Collectors.toSet()));
+        assertEquals(List.of(), bookingRepository.findOwnedBookings(List.of(futureBooking.getId()),
+                user.getId() + 100));
+    }
+
+    @Test
+    void findBookings_whenBookerCurrent_then_ResponseContainsListWithBooking() {
+        List<ResponseBookingDto> bookingList = bookingRepository.findBookings(filter(BookingParty.BOOKER, BookingState.CURRENT), pageable);
 
         assertEquals(1, bookingList.size());
         assertEquals("Походный рюкзак", bookingList.get(0).getItem().getDescription());
         assertEquals("Сергей", bookingList.get(0).getBooker().getName());
         assertEquals(LocalDateTime.of(2023, 6, 23, 12, 23),
                 bookingList.get(0).getStart());
-        assertEquals(LocalDateTime.of(2024, 6, 30, 12, 23),
+        assertEquals(LocalDateTime.of(2124, 6, 30, 12, 23),
                 bookingList.get(0).getEnd());
         assertEquals(BookingStatus.APPROVED, bookingList.get(0).getStatus());
     }
 
     @Test
-    void findPastBookingByUserId_whenInvoked_then_ResponseContainsListWithBooking() {
-        List<Booking> bookingList = bookingRepository.findPastBookingByUserId(user.getId(), pageable);
+    void findBookings_whenBookerPast_then_ResponseContainsListWithBooking() {
+        List<ResponseBookingDto> bookingList = bookingRepository.findBookings(filter(BookingParty.BOOKER, BookingState.PAST), pageable);
 
         assertEquals(1, bookingList.size());
         assertEquals("Походный рюкзак", bookingList.get(0).getItem().getDescription());
@@ -143,36 +272,36 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findFutureBookingByUserId_whenInvoked_then_ResponseContainsListWithBooking() {
-        List<Booking> bookingList = bookingRepository.findFutureBookingByUserId(user.getId(), pageable);
+    void findBookings_whenBookerFuture_then_ResponseContainsListWithBooking() {
+        List<ResponseBookingDto> bookingList = bookingRepository.findBookings(filter(BookingParty.BOOKER, BookingState.FUTURE), pageable);
 
         assertEquals(1, bookingList.size());
         assertEquals("Походный рюкзак", bookingList.get(0).getItem().getDescription());
         assertEquals("Сергей", bookingList.get(0).getBooker().getName());
-        assertEquals(LocalDateTime.of(2024, 6, 29, 12, 23),
+        assertEquals(LocalDateTime.of(2124, 6, 29, 12, 23),
                 bookingList.get(0).getStart());
-        assertEquals(LocalDateTime.of(2024, 6, 30, 12, 23),
+        assertEquals(LocalDateTime.of(2124, 6, 30, 12, 23),
                 bookingList.get(0).getEnd());
         assertEquals(BookingStatus.WAITING, bookingList.get(0).getStatus());
     }
 
     @Test
-    void findWaitingBookingByUserId_whenInvoked_then_ResponseContainsListWithBooking() {
-        List<Booking> bookingList = bookingRepository.findWaitingBookingByUserId(user.getId(), pageable);
+    void findBookings_whenBookerWaiting_then_ResponseContainsListWithBooking() {
+        List<ResponseBookingDto> bookingList = bookingRepository.findBookings(filter(BookingParty.BOOKER, BookingState.WAITING), pageable);
 
         assertEquals(1, bookingList.size());
         assertEquals("Походный рюкзак", bookingList.get(0).getItem().getDescription());
         assertEquals("Сергей", bookingList.get(0).getBooker().getName());
-        assertEquals(LocalDateTime.of(2024, 6, 29, 12, 23),
+        assertEquals(LocalDateTime.of(2124, 6, 29, 12, 23),
                 bookingList.get(0).getStart());
-        assertEquals(LocalDateTime.of(2024, 6, 30, 12, 23),
+        assertEquals(LocalDateTime.of(2124, 6, 30, 12, 23),
                 bookingList.get(0).getEnd());
         assertEquals(BookingStatus.WAITING, bookingList.get(0).getStatus());
     }
 
     @Test
-    void findRejectedBookingByUserId_whenInvoked_then_ResponseContainsListWithBooking() {
-        List<Booking> bookingList = bookingRepository.findRejectedBookingByUserId(user.getId(), pageable);
+    void findBookings_whenBookerRejected_then_ResponseContainsListWithBooking() {
+        List<ResponseBookingDto> bookingList = bookingRepository.findBookings(filter(BookingParty.BOOKER, BookingState.REJECTED), pageable);
 
         assertEquals(1, bookingList.size());
         assertEquals("Походный рюкзак", bookingList.get(0).getItem().getDescription());
@@ -185,36 +314,36 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findAllBookingByOwnerItems_whenInvoked_then_ResponseContainsListWithBooking() {
-        List<Booking> bookingList = bookingRepository.findAllBookingByOwnerItems(user.getId(), pageable);
+    void findBookings_whenOwnerAll_then_ResponseContainsListWithBooking() {
+        List<ResponseBookingDto> bookingList = bookingRepository.findBookings(filter(BookingParty.OWNER, BookingState.ALL), pageable);
 
         assertEquals(3, bookingList.size());
         assertEquals("Походный рюкзак", bookingList.get(0).getItem().getDescription());
         assertEquals("Сергей", bookingList.get(0).getBooker().getName());
-        assertEquals(LocalDateTime.of(2024, 6, 29, 12, 23),
+        assertEquals(LocalDateTime.of(2124, 6, 29, 12, 23),
                 bookingList.get(0).getStart());
-        assertEquals(LocalDateTime.of(2024, 6, 30, 12, 23),
+        assertEquals(LocalDateTime.of(2124, 6, 30, 12, 23),
                 bookingList.get(0).getEnd());
         assertEquals(BookingStatus.WAITING, bookingList.get(0).getStatus());
     }
 
     @Test
-    void findCurrentBookingByOwnerItems_whenInvoked_then_ResponseContainsListWithBooking() {
-        List<Booking> bookingList = bookingRepository.findCurrentBookingByOwnerItems(user.getId(), pageable);
+    void findBookings_whenOwnerCurrent_then_ResponseContainsListWithBooking() {
+        List<ResponseBookingDto> bookingList = bookingRepository.findBookings(filter(BookingParty.OWNER, BookingState.CURRENT), pageable);
 
         assertEquals(1, bookingList.size());
         assertEquals("Походный рюкзак", bookingList.get(0).getItem().getDescription());
         assertEquals("Сергей", bookingList.get(0).getBooker().getName());
         assertEquals(LocalDateTime.of(2023, 6, 23, 12, 23),
                 bookingList.get(0).getStart());
-        assertEquals(LocalDateTime.of(2024, 6, 30, 12, 23),
+        assertEquals(LocalDateTime.of(2124, 6, 30, 12, 23),
                 bookingList.get(0).getEnd());
         assertEquals(BookingStatus.APPROVED, bookingList.get(0).getStatus());
     }
 
     @Test
-    void findPastBookingByOwnerItems_whenInvoked_then_ResponseContainsListWithBooking() {
-        List<Booking> bookingList = bookingRepository.findPastBookingByOwnerItems(user.getId(), pageable);
+    void findBookings_whenOwnerPast_then_ResponseContainsListWithBooking() {
+        List<ResponseBookingDto> bookingList = bookingRepository.findBookings(filter(BookingParty.OWNER, BookingState.PAST), pageable);
 
         assertEquals(1, bookingList.size());
         assertEquals("Походный рюкзак", bookingList.get(0).getItem().getDescription());
@@ -227,36 +356,36 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findFutureBookingByOwnerItems_whenInvoked_then_ResponseContainsListWithBooking() {
-        List<Booking> bookingList = bookingRepository.findFutureBookingByOwnerItems(user.getId(), pageable);
+    void findBookings_whenOwnerFuture_then_ResponseContainsListWithBooking() {
+        List<ResponseBookingDto> bookingList = bookingRepository.findBookings(filter(BookingParty.OWNER, BookingState.FUTURE), pageable);
 
         assertEquals(1, bookingList.size());
         assertEquals("Походный рюкзак", bookingList.get(0).getItem().getDescription());
         assertEquals("Сергей", bookingList.get(0).getBooker().getName());
-        assertEquals(LocalDateTime.of(2024, 6, 29, 12, 23),
+        assertEquals(LocalDateTime.of(2124, 6, 29, 12, 23),
                 bookingList.get(0).getStart());
-        assertEquals(LocalDateTime.of(2024, 6, 30, 12, 23),
+        assertEquals(LocalDateTime.of(2124, 6, 30, 12, 23),
                 bookingList.get(0).getEnd());
         assertEquals(BookingStatus.WAITING, bookingList.get(0).getStatus());
     }
 
     @Test
-    void findWaitingBookingByOwnerItems_whenInvoked_then_ResponseContainsListWithBooking() {
-        List<Booking> bookingList = bookingRepository.findWaitingBookingByOwnerItems(user.getId(), pageable);
+    void findBookings_whenOwnerWaiting_then_ResponseContainsListWithBooking() {
+        List<ResponseBookingDto> bookingList = bookingRepository.findBookings(filter(BookingParty.OWNER, BookingState.WAITING), pageable);
 
         assertEquals(1, bookingList.size());
         assertEquals("Походный рюкзак", bookingList.get(0).getItem().getDescription());
         assertEquals("Сергей", bookingList.get(0).getBooker().getName());
-        assertEquals(LocalDateTime.of(2024, 6, 29, 12, 23),
+        assertEquals(LocalDateTime.of(2124, 6, 29, 12, 23),
                 bookingList.get(0).getStart());
-        assertEquals(LocalDateTime.of(2024, 6, 30, 12, 23),
+        assertEquals(LocalDateTime.of(2124, 6, 30, 12, 23),
                 bookingList.get(0).getEnd());
         assertEquals(BookingStatus.WAITING, bookingList.get(0).getStatus());
     }
 
     @Test
-    void findRejectedBookingByOwnerItems_whenInvoked_then_ResponseContainsListWithBooking() {
-        List<Booking> bookingList = bookingRepository.findRejectedBookingByOwnerItems(user.getId(), pageable);
+    void findBookings_whenOwnerRejected_then_ResponseContainsListWithBooking() {
+        List<ResponseBookingDto> bookingList = bookingRepository.findBookings(filter(BookingParty.OWNER, BookingState.REJECTED), pageable);
 
         assertEquals(1, bookingList.size());
         assertEquals("Походный рюкзак", bookingList.get(0).getItem().getDescription());
@@ -276,7 +405,7 @@ class BookingRepositoryTest {
         assertEquals("Сергей", bookingList.get(0).getBooker().getName());
         assertEquals(LocalDateTime.of(2023, 6, 23, 12, 23),
                 bookingList.get(0).getStart());
-        assertEquals(LocalDateTime.of(2024, 6, 30, 12, 23),
+        assertEquals(LocalDateTime.of(2124, 6, 30, 12, 23),
                 bookingList.get(0).getEnd());
         assertEquals(BookingStatus.APPROVED, bookingList.get(0).getStatus());
     }
@@ -287,37 +416,36 @@ class BookingRepositoryTest {
 
         assertEquals("Походный рюкзак", bookingList.get(0).getItem().getDescription());
         assertEquals("Сергей", bookingList.get(0).getBooker().getName());
-        assertEquals(LocalDateTime.of(2024, 6, 29, 12, 23),
+        assertEquals(LocalDateTime.of(2124, 6, 29, 12, 23),
                 bookingList.get(0).getStart());
-        assertEquals(LocalDateTime.of(2024, 6, 30, 12, 23),
+        assertEquals(LocalDateTime.of(2124, 6, 30, 12, 23),
                 bookingList.get(0).getEnd());
         assertEquals(BookingStatus.WAITING, bookingList.get(0).getStatus());
     }
 
     @Test
-    void findLastBookingForAllOwnerItems_whenInvoked_then_ResponseContainsListWithBooking() {
-        List<Booking> bookingList = bookingRepository.findLastBookingForItem(item.getId());
+    void findLastBookingForItems_whenInvoked_then_ResponseContainsOneBookingPerItem() {
+        List<ItemBookingView> bookingList = bookingRepository.findLastBookingForItems(List.of(item.getId()));
 
-        assertEquals("Походный рюкзак", bookingList.get(0).getItem().getDescription());
-        assertEquals("Сергей", bookingList.get(0).getBooker().getName());
+        assertEquals(1, bookingList.size());
+        assertEquals(item.getId(), bookingList.get(0).getItemId());
+        assertEquals(currentBooking.getId(), bookingList.get(0).getId());
+        assertEquals(user.getId(), bookingList.get(0).getBookerId());
         assertEquals(LocalDateTime.of(2023, 6, 23, 12, 23),
                 bookingList.get(0).getStart());
-        assertEquals(LocalDateTime.of(2024, 6, 30, 12, 23),
+        assertEquals(LocalDateTime.of(2124, 6, 30, 12, 23),
                 bookingList.get(0).getEnd());
-        assertEquals(BookingStatus.APPROVED, bookingList.get(0).getStatus());
     }
 
     @Test
-    void findNextBookingForAllOwnerItems_whenInvoked_then_ResponseContainsListWithBooking() {
-        List<Booking> bookingList = bookingRepository.findNextBookingForItem(item.getId());
+    void findNextBookingForItems_whenInvoked_then_ResponseContainsOneBookingPerItem() {
+        List<ItemBookingView> bookingList = bookingRepository.findNextBookingForItems(List.of(item.getId()));
 
-        assertEquals("Походный рюкзак", bookingList.get(0).getItem().getDescription());
-        assertEquals("Сергей", bookingList.get(0).getBooker().getName());
-        assertEquals(LocalDateTime.of(2024, 6, 29, 12, 23),
+        assertEquals(1, bookingList.size());
+        assertEquals(item.getId(), bookingList.get(0).getItemId());
+        assertEquals(futureBooking.getId(), bookingList.get(0).getId());
+        assertEquals(LocalDateTime.of(2124, 6, 29, 12, 23),
                 bookingList.get(0).getStart());
-        assertEquals(LocalDateTime.of(2024, 6, 30, 12, 23),
-                bookingList.get(0).getEnd());
-        assertEquals(BookingStatus.WAITING, bookingList.get(0).getStatus());
     }
 
     @Test
@@ -335,4 +463,91 @@ class BookingRepositoryTest {
     }
 
 
-}
\ No newline at end of file
+
+    @Test
+    void findBookings_whenBookerCurrentPhaseNotUpdatedYet_thenStartedBookingFound() {
+        Booking started = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(user)
+                .start(LocalDateTime.now().minusMinutes(1))
+                .end(LocalDateTime.now().plusDays(1))
+                .phase(BookingPhase.FUTURE)
+                .build());
+
+        List<ResponseBookingDto> bookingList = bookingRepository.findBookings(filter(BookingParty.BOOKER, BookingState.CURRENT), pageable);
+
+        assertEquals(List.of(started.getId(), currentBooking.getId()),
+                bookingList.stream().map(ResponseBookingDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void updatePhase_whenBookingsStartedAndFinished_thenPhasesMoved() {
+        Booking started = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(user)
+                .start(LocalDateTime.now().minusMinutes(1))
+                .end(LocalDateTime.now().plusDays(1))
+                .phase(BookingPhase.FUTURE)
+                .build());
+        Booking finished = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(user)
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .phase(BookingPhase.CURRENT)
+                .build());
+
+        assertEquals(1, bookingRepository.updatePhaseFinished(
+                List.of(BookingPhase.FUTURE, BookingPhase.CURRENT), BookingPhase.PAST));
+        assertEquals(1, bookingRepository.updatePhaseStarted(BookingPhase.FUTURE, BookingPhase.CURRENT));
+        entityManager.clear();
+
+        assertEquals(BookingPhase.CURRENT, bookingRepository.findById(started.getId()).orElseThrow().getPhase());
+        assertEquals(BookingPhase.PAST, bookingRepository.findById(finished.getId()).orElseThrow().getPhase());
+        assertEquals(BookingPhase.FUTURE, bookingRepository.findById(futureBooking.getId()).orElseThrow().getPhase());
+    }
+
+    @Test
+    void findBookings_whenItemAndRangeGiven_thenOnlyMatchingBookings() {
+        Item otherItem = itemRepository.save(Item.builder()
+                .owner(user)
+                .available(true)
+                .name("Палатка")
+                .description("Двухместная палатка")
+                .build());
+        Booking otherBooking = bookingRepository.save(Booking.builder()
+                .item(otherItem)
+                .booker(user)
+                .start(LocalDateTime.of(2124, 6, 29, 12, 23))
+                .end(LocalDateTime.of(2124, 6, 30, 12, 23))
+                .build());
+        BookingFilter byItem = BookingFilter.builder()
+                .party(BookingParty.OWNER)
+                .userId(user.getId())
+                .itemId(otherItem.getId())
+                .build();
+        BookingFilter byRange = BookingFilter.builder()
+                .party(BookingParty.BOOKER)
+                .userId(user.getId())
+                .rangeStart(LocalDateTime.of(2023, 6, 22, 0, 0))
+                .rangeEnd(LocalDateTime.of(2023, 6, 24, 0, 0))
+                .build();
+
+        List<ResponseBookingDto> itemBookings = bookingRepository.findBookings(byItem, pageable);
+        List<ResponseBookingDto> rangeBookings = bookingRepository.findBookings(byRange, pageable);
+
+        assertEquals(1, itemBookings.size());
+        assertEquals(otherBooking.getId(), itemBookings.get(0).getId());
+        assertNull(itemBookings.get(0).getItem().getRequestId());
+        assertEquals(List.of(currentBooking.getId(), pastBooking.getId()),
+                rangeBookings.stream().map(ResponseBookingDto::getId).collect(Collectors.toList()));
+    }
+
+    private BookingFilter filter(BookingParty party, BookingState state) {
+        return BookingFilter.builder()
+                .party(party)
+                .userId(user.getId())
+                .state(state)
+                .build();
+    }
+}
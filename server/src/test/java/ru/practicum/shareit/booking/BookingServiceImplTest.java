@@ -5,11 +5,18 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingForItemDto;
 import ru.practicum.shareit.booking.dto.ResponseBookingDto;
 import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.exception.BatchSizeExceededException;
+import ru.practicum.shareit.exception.BookingOverlapException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.ItemNotAvailableException;
 import ru.practicum.shareit.exception.ReceivedStatusAlreadyExistsException;
@@ -21,25 +28,34 @@ import ru.practicum.shareit.item.comment.RequestCommentDto;
 import ru.practicum.shareit.item.comment.ResponseCommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ResponseItemDto;
+import ru.practicum.shareit.user.DatabaseUserIdFilter;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 
 class BookingServiceImplTest {
     private final ItemRepository mockItemRepository = Mockito.mock(ItemRepository.class);
     private final UserRepository mockUserRepository = Mockito.mock(UserRepository.class);
     private final BookingRepository mockBookingRepository = Mockito.mock(BookingRepository.class);
+    private final BookingOverlapGuard mockBookingOverlapGuard = Mockito.mock(BookingOverlapGuard.class);
     private final BookingService bookingService = new BookingServiceImpl(
             mockBookingRepository,
             mockUserRepository,
-            mockItemRepository);
+            mockItemRepository,
+            new DatabaseUserIdFilter(),
+            mockBookingOverlapGuard);
     private ResponseItemDto responseItemDto;
     private Item item;
     private ItemDto itemDto;
@@ -202,6 +218,120 @@ class BookingServiceImplTest {
                 () -> bookingService.create(1L, bookingDto));
     }
 
+    @Test
+    void createAll_whenSomeEntriesRejected_thenOthersSavedInOneCall() {
+        BookingDto missingItemDto = BookingDto.builder()
+                .end(LocalDateTime.of(2023, 6, 30, 12, 23))
+                .start(LocalDateTime.of(2023, 6, 29, 12, 23))
+                .itemId(99L)
+                .build();
+        Mockito
+                .when(mockUserRepository.findById(2L))
+                .thenReturn(Optional.of(user));
+        Mockito
+                .when(mockItemRepository.findAllById(any()))
+                .thenReturn(List.of(item));
+
+        List<BookingBatchResultDto> result = bookingService.createAll(2L, List.of(bookingDto, missingItemDto));
+
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals(1L, result.get(0).getBooking().getItem().getId());
+        Assertions.assertNull(result.get(0).getError());
+        Assertions.assertNull(result.get(1).getBooking());
+        Assertions.assertTrue(result.get(1).getError().startsWith("Вещь c ID:99 не существует!"));
+        Mockito.verify(mockItemRepository).findAllById(Set.of(1L, 99L));
+        Mockito.verify(mockBookingRepository).saveAll(Mockito.<List<Booking>>argThat(bookings -> bookings.size() == 1));
+        Mockito.verify(mockItemRepository, Mockito.never()).findById(anyLong());
+    }
+
+    @Test
+    void create_whenPeriodOverlaps_thenBookingOverlapExceptionAndNothingSaved() {
+        Mockito
+                .when(mockItemRepository.findById(1L))
+                .thenReturn(Optional.of(item));
+        Mockito
+                .when(mockUserRepository.findById(anyLong()))
+                .thenReturn(Optional.of(user));
+        Mockito
+                .doThrow(new BookingOverlapException("Вещь с ID: 1 уже забронирована на пересекающийся период."))
+                .when(mockBookingOverlapGuard).reserve(1L, bookingDto.getStart(), bookingDto.getEnd());
+
+        Assertions.assertThrows(BookingOverlapException.class,
+                () -> bookingService.create(2L, bookingDto));
+        Mockito.verify(mockBookingRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void createAll_whenSecondEntryOverlaps_thenOnlyItRejected() {
+        Mockito
+                .when(mockUserRepository.findById(2L))
+                .thenReturn(Optional.of(user));
+        Mockito
+                .when(mockItemRepository.findAllById(any()))
+                .thenReturn(List.of(item));
+        Mockito
+                .doNothing()
+                .doThrow(new BookingOverlapException("Вещь с ID: 1 уже забронирована на пересекающийся период."))
+                .when(mockBookingOverlapGuard).reserve(1L, bookingDto.getStart(), bookingDto.getEnd());
+
+        List<BookingBatchResultDto> result = bookingService.createAll(2L, List.of(bookingDto, bookingDto));
+
+        Assertions.assertNotNull(result.get(0).getBooking());
+        Assertions.assertNull(result.get(1).getBooking());
+        Assertions.assertEquals("Вещь с ID: 1 уже забронирована на пересекающийся период.", result.get(1).getError());
+    }
+
+    @Test
+    void createAll_whenDatabaseFindsConcurrentOverlap_thenItemsEvictedAndBookingOverlapException() {
+        Mockito
+                .when(mockUserRepository.findById(2L))
+                .thenReturn(Optional.of(user));
+        Mockito
+                .when(mockItemRepository.findAllById(any()))
+                .thenReturn(List.of(item));
+        Mockito
+                .doThrow(new DataIntegrityViolationException("bookings_no_overlap",
+                        new SQLException("conflicting key value violates exclusion constraint", "23P01")))
+                .when(mockBookingRepository).flush();
+
+        Assertions.assertThrows(BookingOverlapException.class,
+                () -> bookingService.createAll(2L, List.of(bookingDto)));
+        Mockito.verify(mockBookingOverlapGuard).evict(Set.of(1L));
+    }
+
+    @Test
+    void createAll_whenBatchTooLarge_thenBatchSizeExceededException() {
+        List<BookingDto> bookingDtos = Collections.nCopies(501, bookingDto);
+
+        Assertions.assertThrows(BatchSizeExceededException.class,
+                () -> bookingService.createAll(2L, bookingDtos));
+        Mockito.verifyNoInteractions(mockUserRepository, mockBookingOverlapGuard);
+    }
+
+    @Test
+    void changeStatuses_whenBatchTooLarge_thenBatchSizeExceededException() {
+        List<BookingDecisionDto> decisions = Collections.nCopies(501, decision(1L, true));
+
+        Assertions.assertThrows(BatchSizeExceededException.class,
+                () -> bookingService.changeStatuses(1L, decisions));
+        Mockito.verifyNoInteractions(mockBookingRepository);
+    }
+
+    @Test
+    void createAll_whenInvokedByOwner_thenEntryRejected() {
+        Mockito
+                .when(mockUserRepository.findById(1L))
+                .thenReturn(Optional.of(user));
+        Mockito
+                .when(mockItemRepository.findAllById(any()))
+                .thenReturn(List.of(item));
+
+        List<BookingBatchResultDto> result = bookingService.createAll(1L, List.of(bookingDto));
+
+        Assertions.assertNull(result.get(0).getBooking());
+        Assertions.assertTrue(result.get(0).getError().startsWith("Пользователь c ID:1 является владельцем!"));
+    }
+
     @Test
     void changeStatus_whenInvokedTrue_thenReturnApprovedBooking() {
         ResponseBookingDto responseBookingDto2 = ResponseBookingDto.builder()
@@ -243,6 +373,20 @@ class BookingServiceImplTest {
                 () -> bookingService.changeStatus(1L, 1L, true));
     }
 
+    @Test
+    void changeStatus_whenRejected_thenPeriodReleased() {
+        Mockito
+                .when(mockBookingRepository.findById(1L))
+                .thenReturn(Optional.of(booking));
+        Mockito
+                .when(mockBookingRepository.save(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        bookingService.changeStatus(1L, 1L, false);
+
+        Mockito.verify(mockBookingOverlapGuard).release(1L, booking.getStart(), booking.getEnd());
+    }
+
     @Test
     void changeStatus_whenInvokedWithFalse_thenReturnRejectedBooking() {
         ResponseBookingDto responseBookingDto3 = ResponseBookingDto.builder()
@@ -265,6 +409,61 @@ class BookingServiceImplTest {
         Assertions.assertEquals(responseBookingDto3, result);
     }
 
+    @Test
+    void changeStatuses_whenMixedDecisions_thenOneBatchUpdateAndOutcomePerBooking() {
+        SpelAwareProxyProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+        Mockito
+                .when(mockUserRepository.existsById(1L))
+                .thenReturn(true);
+        Mockito
+                .when(mockBookingRepository.findOwnedBookings(any(), eq(1L)))
+                .thenReturn(List.of(
+                        projectionFactory.createProjection(BookingDecisionView.class, Map.of("id", 1L,
+                                "status", BookingStatus.WAITING, "itemId", 1L,
+                                "start", booking.getStart(), "end", booking.getEnd())),
+                        projectionFactory.createProjection(BookingDecisionView.class, Map.of("id", 2L,
+                                "status", BookingStatus.APPROVED, "itemId", 1L,
+                                "start", booking.getStart(), "end", booking.getEnd())),
+                        projectionFactory.createProjection(BookingDecisionView.class, Map.of("id", 3L,
+                                "status", BookingStatus.WAITING, "itemId", 1L,
+                                "start", booking.getStart(), "end", booking.getEnd()))));
+        Mockito
+                .when(mockBookingRepository.updateWaitingStatuses(Map.of(1L, BookingStatus.REJECTED,
+                        3L, BookingStatus.APPROVED)))
+                .thenReturn(Set.of(1L));
+
+        List<BookingDecisionResultDto> result = bookingService.changeStatuses(1L, List.of(
+                decision(1L, false), decision(2L, true), decision(3L, true), decision(4L, true), decision(1L, true)));
+
+        Assertions.assertEquals(BookingStatus.REJECTED, result.get(0).getStatus());
+        Assertions.assertEquals("Переданный статус уже установлен.", result.get(1).getError());
+        Assertions.assertEquals("Статус бронирования уже изменен другим запросом.", result.get(2).getError());
+        Assertions.assertTrue(result.get(3).getError().startsWith("Бронирование c ID:4 не существует"));
+        Assertions.assertEquals("Переданный статус уже установлен.", result.get(4).getError());
+        Mockito.verify(mockBookingOverlapGuard).release(1L, booking.getStart(), booking.getEnd());
+        Mockito.verify(mockBookingRepository).findOwnedBookings(Set.of(1L, 2L, 3L, 4L), 1L);
+        Mockito.verify(mockBookingRepository, Mockito.never()).findById(anyLong());
+    }
+
+    @Test
+    void changeStatuses_whenApprovedMissing_thenEntryErrorAndNotRejected() {
+        Mockito
+                .when(mockUserRepository.existsById(1L))
+                .thenReturn(true);
+        Mockito
+                .when(mockBookingRepository.findOwnedBookings(any(), eq(1L)))
+                .thenReturn(List.of(new SpelAwareProxyProjectionFactory().createProjection(BookingDecisionView.class,
+                        Map.of("id", 1L, "status", BookingStatus.WAITING, "itemId", 1L,
+                                "start", booking.getStart(), "end", booking.getEnd()))));
+
+        List<BookingDecisionResultDto> result = bookingService.changeStatuses(1L, List.of(decision(1L, null)));
+
+        Assertions.assertEquals("Не указано решение approved для бронирования c ID:1.", result.get(0).getError());
+        Assertions.assertNull(result.get(0).getStatus());
+        Mockito.verify(mockBookingRepository).updateWaitingStatuses(Map.of());
+        Mockito.verifyNoInteractions(mockBookingOverlapGuard);
+    }
+
     @Test
     void findBookingInfo_whenInvoked_then_ReturnBooking() {
         Mockito
@@ -292,14 +491,15 @@ class BookingServiceImplTest {
                 .thenReturn(true);
         Mockito
                 .when(mockBookingRepository
-                        .findCurrentBookingByUserId(anyLong(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+                        .findBookings(eq(filter(BookingParty.BOOKER, BookingState.CURRENT)), any(Pageable.class)))
+                .thenReturn(List.of(responseBookingDto));
 
         List<ResponseBookingDto> result = bookingService.findAllBookingByUserId(
                 1L,
                 BookingState.CURRENT,
                 0,
-                1);
+                1,
+                null);
         Assertions.assertEquals(List.of(responseBookingDto), result);
     }
 
@@ -310,14 +510,15 @@ class BookingServiceImplTest {
                 .thenReturn(true);
         Mockito
                 .when(mockBookingRepository
-                        .findPastBookingByUserId(anyLong(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+                        .findBookings(eq(filter(BookingParty.BOOKER, BookingState.PAST)), any(Pageable.class)))
+                .thenReturn(List.of(responseBookingDto));
 
         List<ResponseBookingDto> result = bookingService.findAllBookingByUserId(
                 1L,
                 BookingState.PAST,
                 0,
-                1);
+                1,
+                null);
         Assertions.assertEquals(List.of(responseBookingDto), result);
     }
 
@@ -328,14 +529,15 @@ class BookingServiceImplTest {
                 .thenReturn(true);
         Mockito
                 .when(mockBookingRepository
-                        .findFutureBookingByUserId(anyLong(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+                        .findBookings(eq(filter(BookingParty.BOOKER, BookingState.FUTURE)), any(Pageable.class)))
+                .thenReturn(List.of(responseBookingDto));
 
         List<ResponseBookingDto> result = bookingService.findAllBookingByUserId(
                 1L,
                 BookingState.FUTURE,
                 0,
-                1);
+                1,
+                null);
         Assertions.assertEquals(List.of(responseBookingDto), result);
     }
 
@@ -346,14 +548,15 @@ class BookingServiceImplTest {
                 .thenReturn(true);
         Mockito
                 .when(mockBookingRepository
-                        .findWaitingBookingByUserId(anyLong(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+                        .findBookings(eq(filter(BookingParty.BOOKER, BookingState.WAITING)), any(Pageable.class)))
+                .thenReturn(List.of(responseBookingDto));
 
         List<ResponseBookingDto> result = bookingService.findAllBookingByUserId(
                 1L,
                 BookingState.WAITING,
                 0,
-                1);
+                1,
+                null);
         Assertions.assertEquals(List.of(responseBookingDto), result);
     }
 
@@ -364,14 +567,15 @@ class BookingServiceImplTest {
                 .thenReturn(true);
         Mockito
                 .when(mockBookingRepository
-                        .findRejectedBookingByUserId(anyLong(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+                        .findBookings(eq(filter(BookingParty.BOOKER, BookingState.REJECTED)), any(Pageable.class)))
+                .thenReturn(List.of(responseBookingDto));
 
         List<ResponseBookingDto> result = bookingService.findAllBookingByUserId(
                 1L,
                 BookingState.REJECTED,
                 0,
-                1);
+                1,
+                null);
         Assertions.assertEquals(List.of(responseBookingDto), result);
     }
 
@@ -382,14 +586,15 @@ class BookingServiceImplTest {
                 .thenReturn(true);
         Mockito
                 .when(mockBookingRepository
-                        .findCurrentBookingByOwnerItems(anyLong(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+                        .findBookings(eq(filter(BookingParty.OWNER, BookingState.CURRENT)), any(Pageable.class)))
+                .thenReturn(List.of(responseBookingDto));
 
         List<ResponseBookingDto> result = bookingService.findAllBookingByOwnerItems(
                 1L,
                 BookingState.CURRENT,
                 0,
-                1);
+                1,
+                null);
         Assertions.assertEquals(List.of(responseBookingDto), result);
     }
 
@@ -400,14 +605,15 @@ class BookingServiceImplTest {
                 .thenReturn(true);
         Mockito
                 .when(mockBookingRepository
-                        .findPastBookingByOwnerItems(anyLong(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+                        .findBookings(eq(filter(BookingParty.OWNER, BookingState.PAST)), any(Pageable.class)))
+                .thenReturn(List.of(responseBookingDto));
 
         List<ResponseBookingDto> result = bookingService.findAllBookingByOwnerItems(
                 1L,
                 BookingState.PAST,
                 0,
-                1);
+                1,
+                null);
         Assertions.assertEquals(List.of(responseBookingDto), result);
     }
 
@@ -418,14 +624,15 @@ class BookingServiceImplTest {
                 .thenReturn(true);
         Mockito
                 .when(mockBookingRepository
-                        .findFutureBookingByOwnerItems(anyLong(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+                        .findBookings(eq(filter(BookingParty.OWNER, BookingState.FUTURE)), any(Pageable.class)))
+                .thenReturn(List.of(responseBookingDto));
 
         List<ResponseBookingDto> result = bookingService.findAllBookingByOwnerItems(
                 1L,
                 BookingState.FUTURE,
                 0,
-                1);
+                1,
+                null);
         Assertions.assertEquals(List.of(responseBookingDto), result);
     }
 
@@ -436,14 +643,15 @@ class BookingServiceImplTest {
                 .thenReturn(true);
         Mockito
                 .when(mockBookingRepository
-                        .findWaitingBookingByOwnerItems(anyLong(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+                        .findBookings(eq(filter(BookingParty.OWNER, BookingState.WAITING)), any(Pageable.class)))
+                .thenReturn(List.of(responseBookingDto));
 
         List<ResponseBookingDto> result = bookingService.findAllBookingByOwnerItems(
                 1L,
                 BookingState.WAITING,
                 0,
-                1);
+                1,
+                null);
         Assertions.assertEquals(List.of(responseBookingDto), result);
     }
 
@@ -454,14 +662,30 @@ class BookingServiceImplTest {
                 .thenReturn(true);
         Mockito
                 .when(mockBookingRepository
-                        .findRejectedBookingByOwnerItems(anyLong(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+                        .findBookings(eq(filter(BookingParty.OWNER, BookingState.REJECTED)), any(Pageable.class)))
+                .thenReturn(List.of(responseBookingDto));
 
         List<ResponseBookingDto> result = bookingService.findAllBookingByOwnerItems(
                 1L,
                 BookingState.REJECTED,
                 0,
-                1);
+                1,
+                null);
         Assertions.assertEquals(List.of(responseBookingDto), result);
     }
-}
\ No newline at end of file
+
+    private BookingDecisionDto decision(Long bookingId, Boolean approved) {
+        return BookingDecisionDto.builder()
+                .bookingId(bookingId)
+                .approved(approved)
+                .build();
+    }
+
+    private BookingFilter filter(BookingParty party, BookingState state) {
+        return BookingFilter.builder()
+                .party(party)
+                .userId(1L)
+                .state(state)
+                .build();
+    }
+}
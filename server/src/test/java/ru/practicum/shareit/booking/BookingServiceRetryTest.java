@@ -0,0 +1,150 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// без транзакции теста: конфликт версий возникает при фиксации, и каждая попытка должна идти в своей транзакции
+@SpringBootTest(properties = "shareit.optimistic-lock.backoff-delay=1")
+class BookingServiceRetryTest {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    @Qualifier("bookingRepository")
+    private BookingRepository realBookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private User owner;
+    private User booker;
+    private Item item;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .email("owner@mail.com")
+                .name("Сергей")
+                .build());
+        booker = userRepository.save(User.builder()
+                .email("booker@mail.com")
+                .name("Иван")
+                .build());
+        item = itemRepository.save(Item.builder()
+                .owner(owner)
+                .available(true)
+                .name("Рюкзак")
+                .description("Походный рюкзак")
+                .build());
+        booking = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(LocalDateTime.of(2124, 6, 29, 12, 23))
+                .end(LocalDateTime.of(2124, 6, 30, 12, 23))
+                .build());
+        Mockito.clearInvocations(bookingRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from bookings where item_id = ?", item.getId());
+        itemRepository.deleteById(item.getId());
+        userRepository.deleteById(booker.getId());
+        userRepository.deleteById(owner.getId());
+    }
+
+    @Test
+    void changeStatus_whenChangedConcurrentlyOnce_thenRetriedAndApproved() {
+        bumpVersionAfterReads(1);
+
+        bookingService.changeStatus(owner.getId(), booking.getId(), true);
+
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+        // две попытки сервиса и проверка выше
+        Mockito.verify(bookingRepository, Mockito.times(3)).findById(booking.getId());
+    }
+
+    @Test
+    void changeStatus_whenConflictPersists_thenOptimisticLockingFailureAfterMaxAttempts() {
+        bumpVersionAfterReads(Integer.MAX_VALUE);
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> bookingService.changeStatus(owner.getId(), booking.getId(), true));
+        Mockito.verify(bookingRepository, Mockito.times(3)).findById(booking.getId());
+    }
+
+    @Test
+    void createAll_whenDatabaseFindsConcurrentOverlapOnce_thenRetriedAndCreated() {
+        Mockito.doThrow(new DataIntegrityViolationException("bookings_no_overlap",
+                        new SQLException("conflicting key value violates exclusion constraint", "23P01")))
+                .doAnswer(AdditionalAnswers.delegatesTo(realBookingRepository))
+                .when(bookingRepository).flush();
+        BookingDto bookingDto = BookingDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.of(2124, 7, 1, 12, 0))
+                .end(LocalDateTime.of(2124, 7, 2, 12, 0))
+                .build();
+
+        List<BookingBatchResultDto> results = bookingService.createAll(booker.getId(), List.of(bookingDto));
+
+        assertNull(results.get(0).getError());
+        assertEquals(2, bookingRepository.findActiveBookingsForItem(item.getId(),
+                BookingOverlapGuard.RESERVING_STATUSES).size());
+        Mockito.verify(bookingRepository, Mockito.times(2)).flush();
+    }
+
+    // между чтением и фиксацией бронирование меняет другой запрос (в другом потоке и соединении)
+    private void bumpVersionAfterReads(int times) {
+        int[] left = {times};
+        Mockito.doAnswer(invocation -> {
+            Object result = realBookingRepository.findById(booking.getId());
+            if (left[0]-- > 0) {
+                CompletableFuture.runAsync(() -> jdbcTemplate.update(
+                        "update bookings set version = version + 1 where id = ?", booking.getId())).join();
+            }
+            return result;
+        }).when(bookingRepository).findById(booking.getId());
+    }
+
+    @TestConfiguration
+    static class RepositoryConfig {
+        // сервис получает заглушку, которая по умолчанию передает все вызовы настоящему репозиторию
+        @Bean
+        @Primary
+        BookingRepository delegatingBookingRepository(@Qualifier("bookingRepository") BookingRepository repository) {
+            return Mockito.mock(BookingRepository.class, AdditionalAnswers.delegatesTo(repository));
+        }
+    }
+}
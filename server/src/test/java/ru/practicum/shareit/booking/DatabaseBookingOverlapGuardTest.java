@@ -0,0 +1,71 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exception.BookingOverlapException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+
+class DatabaseBookingOverlapGuardTest {
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1).withNano(0);
+
+    private final BookingRepository mockBookingRepository = Mockito.mock(BookingRepository.class);
+    private final DatabaseBookingOverlapGuard guard = new DatabaseBookingOverlapGuard(mockBookingRepository);
+
+    @BeforeEach
+    void setUp() {
+        Mockito
+                .when(mockBookingRepository.findBookingsForItemBetween(anyLong(), any(), any(), any()))
+                .thenReturn(List.of());
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void reserve_whenStoredBookingOverlaps_thenBookingOverlapException() {
+        Mockito
+                .when(mockBookingRepository.findBookingsForItemBetween(eq(1L), any(), eq(START), eq(START.plusDays(1))))
+                .thenReturn(List.of(new SpelAwareProxyProjectionFactory().createProjection(ItemBookingView.class,
+                        Map.of("start", START, "end", START.plusDays(2)))));
+
+        Assertions.assertThrows(BookingOverlapException.class, () -> guard.reserve(1L, START, START.plusDays(1)));
+    }
+
+    @Test
+    void reserve_whenOverlapsReservationOfSameTransaction_thenBookingOverlapException() {
+        guard.reserve(1L, START, START.plusDays(2));
+        guard.reserve(1L, START.plusDays(2), START.plusDays(3));
+        guard.reserve(2L, START, START.plusDays(2));
+
+        Assertions.assertThrows(BookingOverlapException.class,
+                () -> guard.reserve(1L, START.plusDays(1), START.plusDays(2)));
+    }
+
+    @Test
+    void reserve_whenTransactionCompleted_thenReservationsOfNextTransactionChecked() {
+        guard.reserve(1L, START, START.plusDays(2));
+        tearDown();
+        TransactionSynchronizationManager.initSynchronization();
+
+        guard.reserve(1L, START, START.plusDays(2));
+    }
+}
@@ -0,0 +1,201 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingPeriodDto;
+import ru.practicum.shareit.exception.BookingOverlapException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+
+class IntervalBookingOverlapGuardTest {
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1).withNano(0);
+
+    private final BookingRepository mockBookingRepository = Mockito.mock(BookingRepository.class);
+    private final IntervalBookingOverlapGuard guard = new IntervalBookingOverlapGuard(mockBookingRepository,
+            1000, Duration.ofMinutes(30));
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    @BeforeEach
+    void setUp() {
+        Mockito
+                .when(mockBookingRepository.findActiveBookingsForItem(anyLong(), any()))
+                .thenReturn(List.of());
+        Mockito
+                .when(mockBookingRepository.findActiveBookingsForItem(eq(1L), any()))
+                .thenReturn(List.of(view(START, START.plusDays(2))));
+    }
+
+    @Test
+    void reserve_whenPeriodOverlapsStoredBooking_thenBookingOverlapException() {
+        Assertions.assertThrows(BookingOverlapException.class,
+                () -> guard.reserve(1L, START.plusDays(1), START.plusDays(3)));
+        Assertions.assertThrows(BookingOverlapException.class,
+                () -> guard.reserve(1L, START.minusDays(1), START.plusHours(1)));
+    }
+
+    @Test
+    void reserve_whenPeriodsAdjacentOrOtherItem_thenReserved() {
+        guard.reserve(1L, START.plusDays(2), START.plusDays(3));
+        guard.reserve(1L, START.minusDays(1), START);
+        guard.reserve(2L, START, START.plusDays(2));
+
+        Assertions.assertThrows(BookingOverlapException.class,
+                () -> guard.reserve(1L, START.plusDays(2), START.plusDays(4)));
+        Mockito.verify(mockBookingRepository, Mockito.times(1)).findActiveBookingsForItem(eq(1L), any());
+    }
+
+    @Test
+    void findReservedPeriods_whenReserved_thenPeriodsCrossingRangeInOrder() {
+        guard.reserve(1L, START.plusDays(3), START.plusDays(4));
+        guard.reserve(1L, START.plusDays(10), START.plusDays(11));
+
+        List<BookingPeriodDto> periods = guard.findReservedPeriods(1L, START.plusDays(1), START.plusDays(10));
+
+        Assertions.assertEquals(List.of(START, START.plusDays(3)),
+                periods.stream().map(BookingPeriodDto::getStart).collect(Collectors.toList()));
+        Assertions.assertEquals(START.plusDays(2), periods.get(0).getEnd());
+    }
+
+    @Test
+    void reserve_whenTransactionRolledBack_thenPeriodReleased() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            guard.reserve(2L, START, START.plusDays(1));
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        guard.reserve(2L, START, START.plusDays(1));
+    }
+
+    @Test
+    void release_whenBookingRejected_thenPeriodFree() {
+        guard.reserve(1L, START.plusDays(2), START.plusDays(3));
+        guard.release(1L, START, START.plusDays(2));
+
+        guard.reserve(1L, START.plusDays(1), START.plusDays(2));
+    }
+
+    @Test
+    void evict_whenBookingsDeletedOutsideGuard_thenIntervalsReloaded() {
+        guard.reserve(2L, START, START.plusDays(1));
+
+        guard.evict(List.of(2L));
+
+        guard.reserve(2L, START, START.plusDays(1));
+        Mockito.verify(mockBookingRepository, Mockito.times(2)).findActiveBookingsForItem(eq(2L), any());
+    }
+
+    @Test
+    void reserve_whenTransactionCommitted_thenPeriodStaysReserved() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            guard.reserve(1L, START.plusDays(3), START.plusDays(4));
+            Assertions.assertEquals(List.of(START, START.plusDays(3)),
+                    guard.findReservedPeriods(1L, START, START.plusDays(5)).stream()
+                            .map(BookingPeriodDto::getStart)
+                            .collect(Collectors.toList()));
+            completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Assertions.assertThrows(BookingOverlapException.class,
+                () -> guard.reserve(1L, START.plusDays(3), START.plusDays(4)));
+        Assertions.assertEquals(2, guard.findReservedPeriods(1L, START, START.plusDays(5)).size());
+    }
+
+    @Test
+    void evict_whenReservationUncommitted_thenOverlapStillRejected() throws Exception {
+        ExecutorService otherTransaction = Executors.newSingleThreadExecutor();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            guard.reserve(2L, START, START.plusDays(1));
+
+            otherTransaction.submit(() -> guard.evict(List.of(2L))).get();
+            Future<Boolean> reserved = otherTransaction.submit(() -> {
+                try {
+                    guard.reserve(2L, START.plusHours(12), START.plusDays(2));
+                    return true;
+                } catch (BookingOverlapException e) {
+                    return false;
+                }
+            });
+
+            Assertions.assertFalse(reserved.get());
+            completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            otherTransaction.shutdownNow();
+        }
+
+        guard.reserve(2L, START.plusHours(12), START.plusDays(2));
+    }
+
+    @Test
+    void reserve_whenConcurrentRequestsForSamePeriod_thenOnlyOneReserved() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> attempts = IntStream.range(0, 32)
+                    .mapToObj(i -> (Callable<Boolean>) () -> {
+                        try {
+                            guard.reserve(3L, START, START.plusDays(1));
+                            return true;
+                        } catch (BookingOverlapException e) {
+                            return false;
+                        }
+                    })
+                    .collect(Collectors.toList());
+            Map<Boolean, Long> outcomes = executor.invokeAll(attempts).stream()
+                    .map(IntervalBookingOverlapGuardTest::get)
+                    .collect(Collectors.groupingBy(reserved -> reserved, Collectors.counting()));
+
+            Assertions.assertEquals(1L, outcomes.get(true));
+            Assertions.assertEquals(31L, outcomes.get(false));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private ItemBookingView view(LocalDateTime start, LocalDateTime end) {
+        return projectionFactory.createProjection(ItemBookingView.class, Map.of("start", start, "end", end));
+    }
+
+    private static Boolean get(Future<Boolean> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -8,9 +8,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.booking.dto.BookingPeriodDto;
 import ru.practicum.shareit.item.comment.RequestCommentDto;
 import ru.practicum.shareit.item.comment.ResponseCommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -22,8 +24,13 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -77,7 +84,7 @@ class ItemControllerTest {
 
     @Test
     void findAllOwnerItems() throws Exception {
-        when(itemService.findAllOwnerItems(1L, 0, 10))
+        when(itemService.findAllOwnerItems(1L, 0, 10, null))
                 .thenReturn(List.of(responseItemDto));
 
         mvc.perform(get("/items?from=0&size=10")
@@ -104,6 +111,53 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.available", is(responseItemDto.getAvailable()), Boolean.class));
     }
 
+    @Test
+    void findById_whenIfNoneMatchIsCurrent_thenNotModifiedWithoutBody() throws Exception {
+        when(itemService.findETag(1L, 1L))
+                .thenReturn("3");
+
+        mvc.perform(get("/items/1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""));
+        verify(itemService, never()).findById(anyLong(), anyLong());
+    }
+
+    @Test
+    void findById_whenIfNoneMatchIsStale_thenBodyWithNewEtag() throws Exception {
+        when(itemService.findETag(1L, 1L))
+                .thenReturn("4");
+        when(itemService.findById(1L, 1L))
+                .thenReturn(responseItemDto);
+
+        mvc.perform(get("/items/1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.id", is(responseItemDto.getId()), Long.class));
+    }
+
+    @Test
+    void findAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2124, 6, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2124, 7, 1, 0, 0);
+        when(itemService.findAvailability(1L, 1L, from, to))
+                .thenReturn(List.of(BookingPeriodDto.builder()
+                        .start(from)
+                        .end(LocalDateTime.of(2124, 6, 10, 12, 0))
+                        .build()));
+
+        mvc.perform(get("/items/1/availability?from=2124-06-01T00:00:00&to=2124-07-01T00:00:00")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].start", is("2124-06-01T00:00:00")))
+                .andExpect(jsonPath("$[0].end", is("2124-06-10T12:00:00")));
+    }
+
     @Test
     void findByText() throws Exception {
         when(itemService.findByText(1L, "Рюкзак", 0, 10))
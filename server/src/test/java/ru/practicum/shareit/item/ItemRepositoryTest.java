@@ -7,14 +7,23 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentRepository;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.data.domain.Sort.Direction.ASC;
 
 @DataJpaTest
@@ -25,6 +34,10 @@ class ItemRepositoryTest {
     private ItemRequestRepository itemRequestRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
     private User owner;
     private Item item;
     private ItemRequest itemRequest;
@@ -72,6 +85,50 @@ class ItemRepositoryTest {
         initSetOfAsserts(itemList);
     }
 
+    @Test
+    void findByText_whenNameAndDescriptionMatch_then_NameMatchesGoFirst() {
+        Item bag = itemRepository.save(Item.builder()
+                .owner(owner)
+                .available(true)
+                .name("Сумка")
+                .description("Сумка для рюкзака")
+                .build());
+        Item hiddenBackpack = itemRepository.save(Item.builder()
+                .owner(owner)
+                .available(false)
+                .name("Рюкзак детский")
+                .description("Маленький рюкзак")
+                .build());
+        Pageable pageable = PageRequest.of(0, 5);
+
+        List<Item> itemList = itemRepository.findByText("рюкзак", pageable);
+
+        assertEquals(List.of(item.getId(), bag.getId()),
+                itemList.stream().map(Item::getId).collect(Collectors.toList()));
+        assertFalse(itemList.contains(hiddenBackpack));
+    }
+
+    @Test
+    void findByText_whenTextContainsWildcards_then_TheyMatchLiterally() {
+        Item saw = itemRepository.save(Item.builder()
+                .owner(owner)
+                .available(true)
+                .name("Пила 100")
+                .description("Ручная пила_2")
+                .build());
+        Item tent = itemRepository.save(Item.builder()
+                .owner(owner)
+                .available(true)
+                .name("Тент 1%0")
+                .description("Тент со скидкой")
+                .build());
+        Pageable pageable = PageRequest.of(0, 5);
+
+        assertEquals(List.of(tent), itemRepository.findByText("1%0", pageable));
+        assertEquals(List.of(saw), itemRepository.findByText("а_2", pageable));
+        assertEquals(List.of(), itemRepository.findByText("и_а", pageable));
+    }
+
     @Test
     void findByItemRequestIn_whenInvoked_then_ResponseContainsListWithItem() {
         Sort sort = Sort.by(ASC, "id");
@@ -88,6 +145,40 @@ class ItemRepositoryTest {
         initSetOfAsserts(itemList);
     }
 
+    @Test
+    void findVersionById_whenBookingAndCommentAdded_thenTagComponentsChange() {
+        User booker = userRepository.save(User.builder()
+                .email("ivan@mail.com")
+                .name("Иван")
+                .build());
+        ItemVersionView empty = itemRepository.findVersionById(item.getId(), booker.getId()).orElseThrow();
+        LocalDateTime start = LocalDateTime.of(2124, 6, 29, 12, 0);
+        Booking booking = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(start.plusDays(1))
+                .build());
+        Comment comment = commentRepository.save(Comment.builder()
+                .text("Отличный рюкзак")
+                .item(item)
+                .author(booker)
+                .build());
+
+        ItemVersionView version = itemRepository.findVersionById(item.getId(), booker.getId()).orElseThrow();
+
+        assertEquals(0L, empty.getBookingCount());
+        assertNull(empty.getBookingsVersion());
+        assertEquals(0L, empty.getCommentCount());
+        assertEquals(owner.getId(), version.getOwnerId());
+        assertEquals(start, version.getNextStart());
+        assertEquals(1L, version.getBookingCount());
+        assertEquals(booking.getId() * 1048576 + booking.getVersion(), version.getBookingsVersion());
+        assertEquals(1L, version.getCommentCount());
+        assertEquals(comment.getId() * 1048576 + booker.getVersion(), version.getCommentAuthorsVersion());
+        assertTrue(itemRepository.findVersionById(item.getId(), booker.getId() + 100).isEmpty());
+    }
+
     private void initSetOfAsserts(List<Item> itemList) {
         assertEquals(1, itemList.size());
         assertEquals("Походный рюкзак", itemList.get(0).getDescription());
@@ -5,13 +5,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import ru.practicum.shareit.booking.BookingOverlapGuard;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.ItemBookingView;
 import ru.practicum.shareit.booking.dto.BookingForItemDto;
+import ru.practicum.shareit.booking.dto.BookingPeriodDto;
 import ru.practicum.shareit.booking.entity.Booking;
 import ru.practicum.shareit.exception.UserNotBookerOrBookingNotFinishedException;
 import ru.practicum.shareit.item.comment.Comment;
@@ -21,12 +24,14 @@ import ru.practicum.shareit.item.comment.ResponseCommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ResponseItemDto;
 import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.DatabaseUserIdFilter;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
@@ -38,14 +43,17 @@ class ItemServiceImplTest {
     private final BookingRepository mockBookingRepository = Mockito.mock(BookingRepository.class);
     private final CommentRepository mockCommentRepository = Mockito.mock(CommentRepository.class);
     private final ItemRequestRepository mockItemRequestRepository = Mockito.mock(ItemRequestRepository.class);
-    private final ModelMapper modelMapper = new ModelMapper();
+    private final BookingOverlapGuard mockBookingOverlapGuard = Mockito.mock(BookingOverlapGuard.class);
     private final ItemService itemService = new ItemServiceImpl(
             mockItemRepository,
             mockUserRepository,
             mockBookingRepository,
             mockCommentRepository,
             mockItemRequestRepository,
-            modelMapper);
+            new DatabaseItemSearchEngine(mockItemRepository),
+            new DatabaseUserIdFilter(),
+            mockBookingOverlapGuard,
+            new ItemDtoMapperImpl());
     private ResponseItemDto responseItemDto;
     private Item item;
     private ItemDto itemDto;
@@ -55,6 +63,7 @@ class ItemServiceImplTest {
     private ResponseCommentDto responseCommentDto;
     private RequestCommentDto requestCommentDto;
     private BookingForItemDto bookingForItemDto;
+    private ItemBookingView bookingView;
 
     @BeforeEach
     void setUp() {
@@ -103,6 +112,13 @@ class ItemServiceImplTest {
                 .start(LocalDateTime.of(2023, 6, 29, 12, 23))
                 .build();
 
+        bookingView = new SpelAwareProxyProjectionFactory().createProjection(ItemBookingView.class, Map.of(
+                "itemId", 1L,
+                "id", 1L,
+                "start", LocalDateTime.of(2023, 6, 29, 12, 23),
+                "end", LocalDateTime.of(2023, 6, 30, 12, 23),
+                "bookerId", 1L));
+
         responseCommentDto = ResponseCommentDto.builder()
                 .id(1L)
                 .text("Отличный рюкзак")
@@ -125,6 +141,45 @@ class ItemServiceImplTest {
                 .build();
     }
 
+    @Test
+    void findAvailability_whenReservedPeriodsInside_thenGapsReturned() {
+        LocalDateTime from = LocalDateTime.of(2124, 6, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2124, 7, 1, 0, 0);
+        Mockito
+                .when(mockItemRepository.findById(1L))
+                .thenReturn(Optional.of(item));
+        Mockito
+                .when(mockUserRepository.existsById(anyLong()))
+                .thenReturn(true);
+        Mockito
+                .when(mockBookingOverlapGuard.findReservedPeriods(1L, from, to))
+                .thenReturn(List.of(
+                        period(LocalDateTime.of(2124, 5, 30, 0, 0), LocalDateTime.of(2124, 6, 3, 0, 0)),
+                        period(LocalDateTime.of(2124, 6, 10, 0, 0), LocalDateTime.of(2124, 6, 12, 0, 0)),
+                        period(LocalDateTime.of(2124, 6, 12, 0, 0), LocalDateTime.of(2124, 6, 15, 0, 0))));
+
+        List<BookingPeriodDto> result = itemService.findAvailability(2L, 1L, from, to);
+
+        Assertions.assertEquals(List.of(
+                period(LocalDateTime.of(2124, 6, 3, 0, 0), LocalDateTime.of(2124, 6, 10, 0, 0)),
+                period(LocalDateTime.of(2124, 6, 15, 0, 0), to)), result);
+    }
+
+    @Test
+    void findAvailability_whenItemNotAvailable_thenNoFreePeriods() {
+        item.setAvailable(false);
+        Mockito
+                .when(mockItemRepository.findById(1L))
+                .thenReturn(Optional.of(item));
+        Mockito
+                .when(mockUserRepository.existsById(anyLong()))
+                .thenReturn(true);
+
+        Assertions.assertEquals(Collections.emptyList(), itemService.findAvailability(2L, 1L,
+                LocalDateTime.of(2124, 6, 1, 0, 0), LocalDateTime.of(2124, 7, 1, 0, 0)));
+        Mockito.verifyNoInteractions(mockBookingOverlapGuard);
+    }
+
     @Test
     void findAllOwnerItems() {
         Mockito
@@ -138,13 +193,13 @@ class ItemServiceImplTest {
                 .when(mockCommentRepository.findByItemIn(List.of(item), Sort.by(DESC, "created")))
                 .thenReturn(List.of(comment));
         Mockito
-                .when(mockBookingRepository.findNextBookingForAllOwnerItems(1L))
-                .thenReturn(List.of(booking));
+                .when(mockBookingRepository.findNextBookingForItems(List.of(1L)))
+                .thenReturn(List.of(bookingView));
         Mockito
-                .when(mockBookingRepository.findLastBookingForAllOwnerItems(1L))
-                .thenReturn(List.of(booking));
+                .when(mockBookingRepository.findLastBookingForItems(List.of(1L)))
+                .thenReturn(List.of(bookingView));
 
-        List<ResponseItemDto> result = itemService.findAllOwnerItems(1L, 0, 10);
+        List<ResponseItemDto> result = itemService.findAllOwnerItems(1L, 0, 10, null);
         Assertions.assertEquals(List.of(responseItemDto), result);
     }
 
@@ -276,4 +331,11 @@ class ItemServiceImplTest {
                 () -> itemService.addComment(1L, requestCommentDto, 1L));
 
     }
-}
\ No newline at end of file
+
+    private BookingPeriodDto period(LocalDateTime start, LocalDateTime end) {
+        return BookingPeriodDto.builder()
+                .start(start)
+                .end(end)
+                .build();
+    }
+}
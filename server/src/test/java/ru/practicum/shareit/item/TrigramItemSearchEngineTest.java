@@ -0,0 +1,120 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+
+class TrigramItemSearchEngineTest {
+    private final ItemRepository mockItemRepository = Mockito.mock(ItemRepository.class);
+    private final TrigramItemSearchEngine engine = new TrigramItemSearchEngine(mockItemRepository);
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+    private Item backpack;
+    private Item bag;
+    private Item tent;
+
+    @BeforeEach
+    void setUp() {
+        backpack = Item.builder()
+                .id(1L)
+                .available(true)
+                .name("Рюкзак")
+                .description("Походный рюкзак")
+                .build();
+
+        bag = Item.builder()
+                .id(2L)
+                .available(true)
+                .name("Сумка")
+                .description("Сумка для рюкзака")
+                .build();
+
+        tent = Item.builder()
+                .id(3L)
+                .available(true)
+                .name("Палатка")
+                .description("Двухместная палатка")
+                .build();
+
+        Mockito
+                .when(mockItemRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(view(tent), view(bag), view(backpack)))
+                .thenReturn(Collections.emptyList());
+        Mockito
+                .when(mockItemRepository.findAllById(any()))
+                .thenAnswer(invocation -> {
+                    List<Long> ids = invocation.getArgument(0);
+                    return List.of(tent, bag, backpack).stream()
+                            .filter(item -> ids.contains(item.getId()))
+                            .collect(Collectors.toList());
+                });
+        engine.load();
+    }
+
+    @Test
+    void findByText_whenLoaded_thenNameMatchesGoFirstAndDatabaseIsNotSearched() {
+        List<Item> result = engine.findByText("РюК", PageRequest.of(0, 10));
+
+        Assertions.assertEquals(List.of(backpack, bag), result);
+        Mockito.verify(mockItemRepository, Mockito.never()).findByText(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void findByText_whenShortQuery_thenSubstringMatched() {
+        List<Item> result = engine.findByText("ат", PageRequest.of(0, 10));
+
+        Assertions.assertEquals(List.of(tent), result);
+    }
+
+    @Test
+    void findByText_whenSecondPage_thenOnlyPageIsHydrated() {
+        List<Item> result = engine.findByText("рюкзак", PageRequest.of(1, 1));
+
+        Assertions.assertEquals(List.of(bag), result);
+        Mockito.verify(mockItemRepository).findAllById(List.of(2L));
+    }
+
+    @Test
+    void index_whenItemUpdated_thenOldTextIsNotFound() {
+        tent.setName("Шатер");
+        tent.setDescription("Большой шатер");
+        engine.index(tent);
+
+        Assertions.assertEquals(Collections.emptyList(), engine.findByText("палатка", PageRequest.of(0, 10)));
+        Assertions.assertEquals(List.of(tent), engine.findByText("шатер", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void index_whenItemBecameUnavailable_thenItIsNotFound() {
+        backpack.setAvailable(false);
+        engine.index(backpack);
+
+        Assertions.assertEquals(List.of(bag), engine.findByText("рюкзак", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void findByText_whenNotLoaded_thenDatabaseIsSearched() {
+        TrigramItemSearchEngine notLoaded = new TrigramItemSearchEngine(mockItemRepository);
+        Mockito
+                .when(mockItemRepository.findByText(anyString(), any(Pageable.class)))
+                .thenReturn(List.of(backpack));
+
+        Assertions.assertEquals(List.of(backpack), notLoaded.findByText("рюкзак", PageRequest.of(0, 10)));
+    }
+
+    private ItemSearchView view(Item item) {
+        return projectionFactory.createProjection(ItemSearchView.class, item);
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.pagination;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.exception.InvalidCursorException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void decode_whenEncoded_thenSameCursor() {
+        PageCursor cursor = PageCursor.of(LocalDateTime.of(2124, 6, 29, 12, 23), 7L);
+        PageCursor idCursor = PageCursor.of(7L);
+
+        assertEquals(cursor, PageCursor.decode(cursor.encode()));
+        assertEquals(idCursor, PageCursor.decode(idCursor.encode()));
+    }
+
+    @Test
+    void decode_whenTokenIsBroken_thenInvalidCursorExceptionThrown() {
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode("не курсор"));
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode("YWJj")); // "abc" без разделителя
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode("fGFiYw"));
+    }
+
+    @Test
+    void toResponse_whenPageIsFull_thenNextCursorHeaderPresent() {
+        ResponseEntity<List<Long>> full = PageCursor.toResponse(List.of(3L, 2L), 2, PageCursor::of);
+        ResponseEntity<List<Long>> last = PageCursor.toResponse(List.of(1L), 2, PageCursor::of);
+
+        assertEquals(PageCursor.of(2L).encode(), full.getHeaders().getFirst(PageCursor.NEXT_CURSOR_HEADER));
+        assertNull(last.getHeaders().getFirst(PageCursor.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void customPageRequest_whenFromIsNotMultipleOfSize_thenOffsetIsExact() {
+        assertEquals(3, CustomPageRequest.of(3, 2).getOffset());
+    }
+}
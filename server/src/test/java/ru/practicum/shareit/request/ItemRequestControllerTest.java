@@ -90,7 +90,7 @@ class ItemRequestControllerTest {
 
     @Test
     void findAllRequests() throws Exception {
-        when(itemRequestService.findAllRequests(1L, 0, 10))
+        when(itemRequestService.findAllRequests(1L, 0, 10, null))
                 .thenReturn(List.of(itemRequestResponseDto));
 
         mvc.perform(get("/requests/all?from=0&size=10")
@@ -4,14 +4,21 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 @DataJpaTest
 class ItemRequestRepositoryTest {
@@ -19,6 +26,10 @@ class ItemRequestRepositoryTest {
     private ItemRequestRepository itemRequestRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private TestEntityManager entityManager;
     private User user1;
     private User user2;
 
@@ -60,10 +71,60 @@ class ItemRequestRepositoryTest {
     void findAllByRequesterIdNotOrderByCreatedDesc_whenInvoked_thenResponseContainsListWithUser2() {
         Pageable pageable = PageRequest.of(0, 5);
         List<ItemRequest> itemRequestList = itemRequestRepository
-                .findAllByRequestorIdNotOrderByCreatedDesc(user1.getId(), pageable).getContent();
+                .findAllByRequestorIdNotOrderByCreatedDescIdDesc(user1.getId(), pageable).getContent();
 
         assertEquals(1, itemRequestList.size());
         assertEquals("Нужна пила", itemRequestList.get(0).getDescription());
         assertEquals("Олег", itemRequestList.get(0).getRequestor().getName());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllByRequestorIdNotAfter_whenAfterCursor_thenResponseContainsOlderRequestsOnly() {
+        ItemRequest newest = itemRequestRepository.save(ItemRequest.builder()
+                .description("Нужен топор")
+                .requestor(user2)
+                .created(LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS))
+                .build());
+
+        PageCursor first = PageCursor.of(LocalDateTime.now().plusYears(100), Long.MAX_VALUE);
+        List<ItemRequest> firstPage = itemRequestRepository
+                .findAllByRequestorIdNotAfter(user1.getId(), first, PageRequest.of(0, 1));
+        List<ItemRequest> secondPage = itemRequestRepository
+                .findAllByRequestorIdNotAfter(user1.getId(),
+                        PageCursor.of(newest.getCreated(), newest.getId()),
+                        PageRequest.of(0, 1));
+
+        assertEquals(List.of(newest), firstPage);
+        assertEquals(1, secondPage.size());
+        assertEquals("Нужна пила", secondPage.get(0).getDescription());
+    }
+
+    @Test
+    void findVersionById_whenItemReplacedBySameVersion_thenItemsVersionChanges() {
+        ItemRequest request = itemRequestRepository.findAllByRequestorIdOrderByCreatedDesc(user1.getId()).get(0);
+        Item tent = itemRepository.save(item("Палатка", request));
+        entityManager.flush();
+        ItemRequestVersionView before = itemRequestRepository.findVersionById(request.getId(), user1.getId())
+                .orElseThrow();
+
+        itemRepository.delete(tent);
+        itemRepository.save(item("Шатер", request));
+        entityManager.flush();
+        ItemRequestVersionView after = itemRequestRepository.findVersionById(request.getId(), user1.getId())
+                .orElseThrow();
+
+        assertEquals(before.getItemCount(), after.getItemCount());
+        assertNotEquals(before.getLastItemId(), after.getLastItemId());
+        assertNotEquals(before.getItemsVersion(), after.getItemsVersion());
+    }
+
+    private Item item(String name, ItemRequest request) {
+        return Item.builder()
+                .name(name)
+                .description(name + " на двоих")
+                .available(true)
+                .owner(user2)
+                .itemRequest(request)
+                .build();
+    }
+}
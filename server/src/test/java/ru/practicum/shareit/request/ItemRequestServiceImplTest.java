@@ -5,7 +5,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -16,6 +15,7 @@ import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.dto.ItemForItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
+import ru.practicum.shareit.user.DatabaseUserIdFilter;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
@@ -31,12 +31,11 @@ class ItemRequestServiceImplTest {
     private final ItemRepository mockItemRepository = Mockito.mock(ItemRepository.class);
     private final ItemRequestRepository mockItemRequestRepository = Mockito.mock(ItemRequestRepository.class);
     private final UserRepository mockUserRepository = Mockito.mock(UserRepository.class);
-    private final ModelMapper modelMapper = new ModelMapper();
     private final ItemRequestService itemRequestService = new ItemRequestServiceImpl(
             mockItemRequestRepository,
             mockItemRepository,
             mockUserRepository,
-            modelMapper);
+            new DatabaseUserIdFilter());
     private ItemRequestDto itemRequestDto;
     private ItemRequestResponseDto itemRequestResponseDto;
     private ItemRequestResponseDto itemRequestResponseForCreateMethodDto;
@@ -136,14 +135,14 @@ class ItemRequestServiceImplTest {
                 .thenReturn(true);
         Mockito
                 .when(mockItemRequestRepository
-                        .findAllByRequestorIdNotOrderByCreatedDesc(anyLong(), any(Pageable.class)))
+                        .findAllByRequestorIdNotOrderByCreatedDescIdDesc(anyLong(), any(Pageable.class)))
                 .thenReturn(page);
         Mockito
                 .when(mockItemRepository
                         .findByItemRequestIn(List.of(itemRequest), Sort.by(ASC, "id")))
                 .thenReturn(List.of(item));
 
-        List<ItemRequestResponseDto> result = itemRequestService.findAllRequests(1L, 0, 1);
+        List<ItemRequestResponseDto> result = itemRequestService.findAllRequests(1L, 0, 1, null);
         Assertions.assertEquals(List.of(itemRequestResponseDto), result);
 
     }
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+class BitSetUserIdFilterTest {
+    private final UserRepository mockUserRepository = Mockito.mock(UserRepository.class);
+    private final BitSetUserIdFilter filter = new BitSetUserIdFilter(mockUserRepository);
+
+    @BeforeEach
+    void setUp() {
+        Mockito
+                .when(mockUserRepository.findIdsAfter(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L, 5L))
+                .thenReturn(Collections.emptyList());
+    }
+
+    @Test
+    void mightExist_whenNotLoaded_thenEveryIdPasses() {
+        Assertions.assertTrue(filter.mightExist(100L));
+    }
+
+    @Test
+    void mightExist_whenLoaded_thenOnlyKnownIdsPass() {
+        filter.load();
+
+        Assertions.assertTrue(filter.mightExist(1L));
+        Assertions.assertTrue(filter.mightExist(5L));
+        Assertions.assertFalse(filter.mightExist(3L));
+        Assertions.assertFalse(filter.mightExist(100L));
+        Assertions.assertFalse(filter.mightExist(-1L));
+        Assertions.assertTrue(filter.mightExist(Long.MAX_VALUE));
+    }
+
+    @Test
+    void addAndRemove_whenLoaded_thenFilterFollowsUsers() {
+        filter.load();
+
+        filter.add(3L);
+        filter.remove(5L);
+
+        Assertions.assertTrue(filter.mightExist(3L));
+        Assertions.assertFalse(filter.mightExist(5L));
+    }
+}
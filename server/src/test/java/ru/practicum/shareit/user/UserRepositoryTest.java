@@ -0,0 +1,63 @@
+package ru.practicum.shareit.user;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// без общей транзакции теста: в кэш второго уровня попадают только зафиксированные данные
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserRepositoryTest {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .email("sher@mail.com")
+                .name("Сергей")
+                .build());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void existsById_whenUserSaved_thenAnsweredFromSecondLevelCache() {
+        // ID из последовательности известен до вставки, и сохраненный пользователь сразу попадает в кэш
+        assertTrue(userRepository.existsById(user.getId()));
+        assertFalse(userRepository.existsById(user.getId() + 100));
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findById_whenUserUpdated_thenCachedEntryReplaced() {
+        user.setName("Иван");
+        userRepository.save(user);
+        statistics.clear();
+
+        assertEquals("Иван", userRepository.findById(user.getId()).orElseThrow().getName());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
@@ -4,18 +4,24 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.modelmapper.ModelMapper;
+import ru.practicum.shareit.booking.BookingOverlapGuard;
+import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.item.ItemRepository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.Mockito.*;
 
 class UserServiceImplTest {
     private final UserRepository mockRepository = Mockito.mock(UserRepository.class);
-    private final ModelMapper modelMapper = new ModelMapper();
-    private final UserService userService = new UserServiceImpl(mockRepository, modelMapper);
+    private final ItemRepository mockItemRepository = Mockito.mock(ItemRepository.class);
+    private final BookingRepository mockBookingRepository = Mockito.mock(BookingRepository.class);
+    private final BookingOverlapGuard mockBookingOverlapGuard = Mockito.mock(BookingOverlapGuard.class);
+    private final UserService userService = new UserServiceImpl(mockRepository, mockItemRepository,
+            mockBookingRepository, mockBookingOverlapGuard, new DatabaseUserIdFilter(), new UserMapperImpl());
     private UserDto userDto;
     private User user;
 
@@ -81,8 +87,16 @@ class UserServiceImplTest {
         Mockito
                 .when(mockRepository.findById(1L))
                 .thenReturn(Optional.of(user));
+        Mockito
+                .when(mockItemRepository.findIdsByOwnerId(1L))
+                .thenReturn(List.of(2L, 3L));
+        Mockito
+                .when(mockBookingRepository.findReservedItemIdsByBookerId(1L, BookingOverlapGuard.RESERVING_STATUSES))
+                .thenReturn(List.of(3L, 4L));
 
         userService.delete(1L);
+        verify(mockBookingOverlapGuard, times(1)).evict(Set.of(2L, 3L, 4L));
+        verify(mockItemRepository, times(1)).deleteAllByOwnerId(1L);
         verify(mockRepository, times(1)).delete(user);
     }
 